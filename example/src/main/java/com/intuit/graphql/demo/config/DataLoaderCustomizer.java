@@ -0,0 +1,32 @@
+package com.intuit.graphql.demo.config;
+
+import com.intuit.graphql.demo.datafetchers.EmployeeDataFetcher;
+import graphql.ExecutionInput;
+import graphql.spring.web.servlet.ExecutionInputCustomizer;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Registers the data loaders of each request, so
+ * that batches never span several requests.
+ */
+@Component
+public class DataLoaderCustomizer implements ExecutionInputCustomizer {
+
+    @Autowired
+    private EmployeeDataFetcher employeeDataFetcher;
+
+    @Override
+    public CompletableFuture<ExecutionInput> customizeExecutionInput(ExecutionInput executionInput, WebRequest webRequest) {
+        DataLoaderRegistry dataLoaderRegistry = new DataLoaderRegistry();
+        dataLoaderRegistry.register(EmployeeDataFetcher.ADDRESS_LOADER,
+                DataLoader.newDataLoader(employeeDataFetcher.addressBatchLoader()));
+        return CompletableFuture.completedFuture(
+                executionInput.transform(builder -> builder.dataLoaderRegistry(dataLoaderRegistry)));
+    }
+}
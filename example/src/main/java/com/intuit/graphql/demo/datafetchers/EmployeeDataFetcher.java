@@ -2,24 +2,28 @@ package com.intuit.graphql.demo.datafetchers;
 
 import com.intuit.graphql.demo.context.DataFetcherContext;
 import com.intuit.graphql.demo.persistence.entity.AddressEntity;
-import com.intuit.graphql.demo.persistence.entity.EmployeeEntity;
 import com.intuit.graphql.demo.service.AddressService;
 import com.intuit.graphql.demo.service.EmployeeService;
 
 import com.intuit.graphql.filter.client.ExpressionFormat;
 import com.intuit.graphql.filter.client.FilterExpression;
+import com.intuit.graphql.filter.client.FilteredBatchLoader;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
-import jakarta.persistence.criteria.*;
 import java.util.List;
 import java.util.Map;
 
 /**
- * This data fetcher demonstrate the n+1 problem.
+ * This data fetcher demonstrate how to avoid the n+1 problem:
+ * addresses are batch loaded, by one query per distinct address
+ * filter instead of one per employee. Filtering employees on
+ * their addresses, e.g. {addresses: {city: {equals: "Austin"}}},
+ * runs as a single query joining the addresses.
  */
 @Component
 public class EmployeeDataFetcher {
@@ -30,6 +34,8 @@ public class EmployeeDataFetcher {
     @Autowired
     private AddressService addressService;
 
+    public static final String ADDRESS_LOADER = "addresses";
+
     private static ThreadLocal<String> dataFetcherContext = new ThreadLocal<>();
 
 
@@ -41,11 +47,10 @@ public class EmployeeDataFetcher {
 
                 FilterExpression.FilterExpressionBuilder builder = FilterExpression.newFilterExpressionBuilder();
                 FilterExpression filterExpression = builder.args(dataFetchingEnvironment.getArguments())
+                        .selectionSet(dataFetchingEnvironment.getSelectionSet())
                         .build();
 
-                Specification<EmployeeEntity> specification = filterExpression.getExpression(ExpressionFormat.JPA);
-
-                List<Map<String, String>> employees = employeeService.searchEmployees(specification);
+                List<Map<String, String>> employees = employeeService.searchEmployees(filterExpression);
                 dataFetcherContext.set(employees.size()+"");
                 System.out.println("Fetched employees from db, threadId = "+Thread.currentThread().getId()+", size = "+employees.size());
                 System.out.println("Hashcode: "+this.hashCode());
@@ -54,34 +59,29 @@ public class EmployeeDataFetcher {
         };
     }
 
+    /**
+     * Returns the loader of the filtered addresses of employees,
+     * fetching the addresses of all the employees of a response
+     * by one query per distinct address filter.
+     */
+    public FilteredBatchLoader<String, Map<String, String>> addressBatchLoader() {
+        return new FilteredBatchLoader<>(
+                ExpressionFormat.JPA,
+                "employee.id",
+                (Specification<AddressEntity> specification) -> addressService.searchAddresses(specification),
+                address -> address.get("employeeId"));
+    }
+
     public DataFetcher getAddresses() {
 
         return new DataFetcher() {
             @Override
             public Object get(DataFetchingEnvironment dataFetchingEnvironment) throws Exception {
                 Map<String,String> employee = dataFetchingEnvironment.getSource();
-                String employeeId = employee.get("id");
-                FilterExpression.FilterExpressionBuilder builder = FilterExpression.newFilterExpressionBuilder();
-                FilterExpression filterExpression = builder.args(dataFetchingEnvironment.getArguments())
-                        .build();
-                Specification<AddressEntity> specification = filterExpression.getExpression(ExpressionFormat.JPA);
-                Specification<AddressEntity> joinSpecification = new Specification<AddressEntity>() {
-
-                    @Override
-                    public Predicate toPredicate(Root<AddressEntity> root, CriteriaQuery<?> criteriaQuery, CriteriaBuilder criteriaBuilder) {
-                        From from = root;
-                        Path path = from.join("employee").get("id");
-                        Predicate predicate = criteriaBuilder.equal(path, employeeId);
-                        return predicate;
-                    }
-                };
-                if (specification != null) {
-                    /* Create a join condition between Address and Employee*/
-                    joinSpecification =  specification.and(joinSpecification);
-                }
-                List<Map<String, String>> address = addressService.searchAddresses(joinSpecification);
-                System.out.println("Fetched address from db, threadId = "+Thread.currentThread().getId()+", employeeId = "+employeeId + "size = "+dataFetcherContext.get());
-                return address;
+                Map<String, Object> filter = dataFetchingEnvironment.getArgument(FilterExpression.FilterExpressionBuilder.FILTER_ARG);
+                DataLoader<FilteredBatchLoader.Key<String>, List<Map<String, String>>> addressLoader =
+                        dataFetchingEnvironment.getDataLoader(ADDRESS_LOADER);
+                return addressLoader.load(FilteredBatchLoader.Key.of(employee.get("id"), filter));
             }
         };
     }
@@ -37,6 +37,7 @@ public class AddressService {
             address.put("city", addressEntity.getCity());
             address.put("state", addressEntity.getState());
             address.put("zipCode", addressEntity.getZipCode().toString());
+            address.put("employeeId", addressEntity.getEmployee().getId());
             addressList.add(address);
         }
         return addressList;
@@ -3,12 +3,18 @@ package com.intuit.graphql.demo.service;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.intuit.graphql.demo.persistence.entity.EmployeeEntity;
-import com.intuit.graphql.demo.persistence.repository.EmployeeRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.client.FilterExpression;
+import com.intuit.graphql.filter.client.ResultShape;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -19,35 +25,59 @@ import java.util.*;
 @Component
 @Transactional
 public class EmployeeService {
-    @Autowired
-    private EmployeeRepository employeeRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
     DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ISO_DATE_TIME;
 
-    public  List<Map<String, String>> searchEmployees(Specification<EmployeeEntity> specification) {
+    /**
+     * Searches the employees matching the filter, reading only the
+     * selected columns (and the id, needed to load the addresses).
+     */
+    public  List<Map<String, String>> searchEmployees(FilterExpression filterExpression) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        ResultShape resultShape = filterExpression.getResultShape().withField("id", "id");
+        Specification<EmployeeEntity> specification = filterExpression.getExpression(ExpressionFormat.JPA);
+        CriteriaQuery<Tuple> query = resultShape.toJpaTupleQuery(criteriaBuilder, EmployeeEntity.class, specification);
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
 
-        List<EmployeeEntity> employees = null;
-        if (specification != null) {
-           employees = employeeRepository.findAll(specification);
-        } else {
-            employees = employeeRepository.findAll();
-        }
         List<Map<String,String>> employeesMap = new ArrayList<>();
+        if (resultShape.getProjection().isEmpty()) {
+            for (Tuple tuple : tuples) {
+                employeesMap.add(transform(tuple.get(0, EmployeeEntity.class)));
+            }
+            return employeesMap;
+        }
 
-        for (EmployeeEntity employeeEntity: employees) {
+        for (Map<String, Object> row : ResultShape.toRows(tuples)) {
             Map<String, String> emp = new HashMap<>();
-            emp.put("id", employeeEntity.getId());
-            emp.put("firstName", employeeEntity.getFirstName());
-            emp.put("lastName", employeeEntity.getLastName());
-            emp.put("age", employeeEntity.getAge().toString());
-            Date date = employeeEntity.getBirthDate();
-            OffsetDateTime offsetDateTime = date.toInstant()
-                    .atOffset(ZoneOffset.UTC);
-           // emp.put("birthDate", formatter.format(date));
-            emp.put("birthDate", dateTimeFormatter.format(offsetDateTime));
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                Object value = column.getValue();
+                if (value instanceof Date) {
+                    emp.put(column.getKey(), format((Date) value));
+                } else if (value != null) {
+                    emp.put(column.getKey(), value.toString());
+                }
+            }
             employeesMap.add(emp);
         }
         return employeesMap;
     }
+
+    private Map<String, String> transform(EmployeeEntity employeeEntity) {
+        Map<String, String> emp = new HashMap<>();
+        emp.put("id", employeeEntity.getId());
+        emp.put("firstName", employeeEntity.getFirstName());
+        emp.put("lastName", employeeEntity.getLastName());
+        emp.put("age", employeeEntity.getAge().toString());
+        emp.put("birthDate", format(employeeEntity.getBirthDate()));
+        return emp;
+    }
+
+    private String format(Date date) {
+        OffsetDateTime offsetDateTime = date.toInstant()
+                .atOffset(ZoneOffset.UTC);
+        return dateTimeFormatter.format(offsetDateTime);
+    }
 }
@@ -0,0 +1,75 @@
+package com.intuit.graphql.filter.ast;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a keyset (seek) predicate
+ * selecting the rows after a cursor for an ordered
+ * list of sort keys. It is a CompoundExpression holding
+ * the expanded form
+ *
+ *     (a > 1) OR ((a = 1) AND (b > 'x'))
+ *
+ * so every visitor can translate it, visitors which
+ * support row value comparison can render the
+ * boundaries as (a, b) > (1, 'x') instead when all
+ * sort keys share the same direction.
+ */
+public class KeysetExpression extends CompoundExpression {
+
+    private final List<BinaryExpression> boundaries;
+
+    /**
+     * Creates the keyset predicate from the per sort key
+     * boundaries, i.e. (key GT value) for ascending and
+     * (key LT value) for descending keys, in sort order.
+     * @param boundaries
+     */
+    public KeysetExpression(List<BinaryExpression> boundaries) {
+        super(expand(boundaries, boundaries.size() - 1), Operator.OR, term(boundaries, boundaries.size() - 1));
+        this.boundaries = Collections.unmodifiableList(boundaries);
+    }
+
+    /**
+     * Returns the per sort key boundaries.
+     * @return
+     */
+    public List<BinaryExpression> getBoundaries() {
+        return boundaries;
+    }
+
+    /**
+     * Returns true if all sort keys share the same direction.
+     * @return
+     */
+    public boolean isUniformDirection() {
+        final Operator operator = boundaries.get(0).getOperator();
+        return boundaries.stream().allMatch(boundary -> operator.equals(boundary.getOperator()));
+    }
+
+    private static Expression expand(List<BinaryExpression> boundaries, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Keyset expression requires at least two sort keys");
+        }
+
+        Expression expression = term(boundaries, 0);
+        for (int i = 1; i < count; i++) {
+            expression = new CompoundExpression(expression, Operator.OR, term(boundaries, i));
+        }
+        return expression;
+    }
+
+    private static Expression term(List<BinaryExpression> boundaries, int index) {
+        Expression term = null;
+        for (int i = 0; i < index; i++) {
+            final BinaryExpression boundary = boundaries.get(i);
+            final Expression equality = new BinaryExpression(
+                    boundary.getLeftOperand(), Operator.EQ, boundary.getRightOperand());
+            term = term == null ? equality : new CompoundExpression(term, Operator.AND, equality);
+        }
+        return term == null
+                ? boundaries.get(index)
+                : new CompoundExpression(term, Operator.AND, boundaries.get(index));
+    }
+}
@@ -68,6 +68,8 @@ public class Operator {
     public static final Operator LTE = new Operator("lte", Operator.Kind.BINARY, TYPE_NUMERIC);
     public static final Operator IN = new Operator("in", Operator.Kind.BINARY, TYPE_STRING, TYPE_NUMERIC);
     public static final Operator BETWEEN = new Operator("between", Operator.Kind.BINARY, TYPE_DATETIME, TYPE_NUMERIC);
+    public static final Operator JSON_CONTAINS = new Operator("jsonContains", Operator.Kind.BINARY, TYPE_JSON);
+    public static final Operator JSON_HAS_KEY = new Operator("jsonHasKey", Operator.Kind.BINARY, TYPE_JSON);
 
     @Override
     public boolean equals(Object o) {
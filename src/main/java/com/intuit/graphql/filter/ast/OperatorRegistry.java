@@ -28,6 +28,8 @@ import static com.intuit.graphql.filter.ast.Operator.EQUALS;
 import static com.intuit.graphql.filter.ast.Operator.GT;
 import static com.intuit.graphql.filter.ast.Operator.GTE;
 import static com.intuit.graphql.filter.ast.Operator.IN;
+import static com.intuit.graphql.filter.ast.Operator.JSON_CONTAINS;
+import static com.intuit.graphql.filter.ast.Operator.JSON_HAS_KEY;
 import static com.intuit.graphql.filter.ast.Operator.LT;
 import static com.intuit.graphql.filter.ast.Operator.LTE;
 import static com.intuit.graphql.filter.ast.Operator.NOT;
@@ -85,6 +87,10 @@ public class OperatorRegistry {
         registry.registerOperator(IN);
         registry.registerOperator(BETWEEN);
 
+        // Json Operators
+        registry.registerOperator(JSON_CONTAINS);
+        registry.registerOperator(JSON_HAS_KEY);
+
         return registry;
     }
 
@@ -27,5 +27,10 @@ public class DefaultFieldValueTransformer implements FieldValueTransformer {
     public FieldValuePair<? extends Object> transformValue(String fieldName, Object value) {
         return new FieldValuePair<>(fieldName, value);
     }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
 }
 
@@ -26,7 +26,11 @@ public enum ExpressionFormat {
     INFIX("INFIX"),
     JPA("JPA"),
     MONGO("MONGO"),
-    ELASTICSEARCH("ELASTICSEARCH");
+    ELASTICSEARCH("ELASTICSEARCH"),
+    JDBC("JDBC"),
+    R2DBC("R2DBC"),
+    BSON("BSON"),
+    ELASTICSEARCH_QUERY("ELASTICSEARCH_QUERY");
 
     private String type;
     ExpressionFormat(String type) {
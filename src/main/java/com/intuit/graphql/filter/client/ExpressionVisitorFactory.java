@@ -15,12 +15,7 @@
  */
 package com.intuit.graphql.filter.client;
 
-import com.intuit.graphql.filter.visitors.ElasticsearchCriteriaExpressionVisitor;
 import com.intuit.graphql.filter.visitors.ExpressionVisitor;
-import com.intuit.graphql.filter.visitors.InfixExpressionVisitor;
-import com.intuit.graphql.filter.visitors.JpaSpecificationExpressionVisitor;
-import com.intuit.graphql.filter.visitors.MongoCriteriaExpressionVisitor;
-import com.intuit.graphql.filter.visitors.SQLExpressionVisitor;
 
 import java.util.Map;
 
@@ -36,7 +31,8 @@ public class ExpressionVisitorFactory {
 
     /**
      * Factory method for creating and returning
-     * instances of ExpressionVisitor.
+     * instances of ExpressionVisitor, served by
+     * the default {@link ExpressionVisitorRegistry}.
      * @param format
      * @param fieldMap
      * @return
@@ -46,26 +42,6 @@ public class ExpressionVisitorFactory {
             Map<String, String> fieldMap,
             FieldValueTransformer fieldValueTransformer) {
 
-        ExpressionVisitor expressionVisitor = new InfixExpressionVisitor(fieldMap, fieldValueTransformer);
-        if (format != null) {
-            switch (format) {
-                case INFIX:
-                    expressionVisitor = new InfixExpressionVisitor(fieldMap, fieldValueTransformer);
-                    break;
-                case SQL:
-                    expressionVisitor =  new SQLExpressionVisitor(fieldMap, fieldValueTransformer);
-                    break;
-                case JPA:
-                    expressionVisitor = new JpaSpecificationExpressionVisitor(fieldMap, fieldValueTransformer);
-                    break;
-                case MONGO:
-                    expressionVisitor =  new MongoCriteriaExpressionVisitor(fieldMap, fieldValueTransformer);
-                    break;
-                case ELASTICSEARCH:
-                    expressionVisitor = new ElasticsearchCriteriaExpressionVisitor(fieldMap, fieldValueTransformer);
-                    break;
-            }
-        }
-        return expressionVisitor;
+        return ExpressionVisitorRegistry.getDefault().getExpressionVisitor(format, fieldMap, fieldValueTransformer);
     }
 }
@@ -0,0 +1,141 @@
+package com.intuit.graphql.filter.client;
+
+import com.intuit.graphql.filter.visitors.BsonExpressionVisitor;
+import com.intuit.graphql.filter.visitors.ElasticsearchCriteriaExpressionVisitor;
+import com.intuit.graphql.filter.visitors.ElasticsearchQueryExpressionVisitor;
+import com.intuit.graphql.filter.visitors.ExpressionVisitor;
+import com.intuit.graphql.filter.visitors.InfixExpressionVisitor;
+import com.intuit.graphql.filter.visitors.JdbcExpressionVisitor;
+import com.intuit.graphql.filter.visitors.JpaSpecificationExpressionVisitor;
+import com.intuit.graphql.filter.visitors.MongoCriteriaExpressionVisitor;
+import com.intuit.graphql.filter.visitors.R2dbcExpressionVisitor;
+import com.intuit.graphql.filter.visitors.SQLExpressionVisitor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the expression visitors per format, configured
+ * once at application startup. A format is served either by
+ * a pre-built, thread-safe visitor shared by all requests
+ * (e.g. one with custom mappings or a custom expression
+ * resolver) or by a provider building a visitor from the
+ * field mapping of the request. Formats are identified by
+ * name, so third-party formats can be registered next to
+ * the {@link ExpressionFormat} ones.
+ */
+public class ExpressionVisitorRegistry {
+
+    /**
+     * Builds the visitor of a format from the field
+     * mapping of a filter expression.
+     */
+    @FunctionalInterface
+    public interface ExpressionVisitorProvider {
+        ExpressionVisitor<?> getExpressionVisitor(FieldMapping fieldMapping);
+    }
+
+    private static final ExpressionVisitorRegistry DEFAULT_REGISTRY = withDefaults();
+
+    private final Map<String, ExpressionVisitorProvider> providers;
+
+    public ExpressionVisitorRegistry() {
+        this.providers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns a new registry serving the built-in formats.
+     * @return
+     */
+    public static ExpressionVisitorRegistry withDefaults() {
+        return new ExpressionVisitorRegistry()
+                .register(ExpressionFormat.INFIX, InfixExpressionVisitor::new)
+                .register(ExpressionFormat.SQL, SQLExpressionVisitor::of)
+                .register(ExpressionFormat.JPA, JpaSpecificationExpressionVisitor::new)
+                .register(ExpressionFormat.MONGO, MongoCriteriaExpressionVisitor::new)
+                .register(ExpressionFormat.ELASTICSEARCH, ElasticsearchCriteriaExpressionVisitor::new)
+                .register(ExpressionFormat.JDBC, JdbcExpressionVisitor::of)
+                .register(ExpressionFormat.R2DBC, R2dbcExpressionVisitor::of)
+                .register(ExpressionFormat.BSON, BsonExpressionVisitor::new)
+                .register(ExpressionFormat.ELASTICSEARCH_QUERY, ElasticsearchQueryExpressionVisitor::new);
+    }
+
+    /**
+     * Returns the registry used when none is configured,
+     * serving the built-in formats.
+     * @return
+     */
+    public static ExpressionVisitorRegistry getDefault() {
+        return DEFAULT_REGISTRY;
+    }
+
+    public ExpressionVisitorRegistry register(ExpressionFormat format, ExpressionVisitorProvider provider) {
+        return register(format.name(), provider);
+    }
+
+    public ExpressionVisitorRegistry register(String format, ExpressionVisitorProvider provider) {
+        providers.put(format, provider);
+        return this;
+    }
+
+    /**
+     * Registers a pre-built visitor, shared by all requests
+     * and ignoring their field mapping. The visitor must be
+     * thread-safe.
+     * @param format
+     * @param expressionVisitor
+     * @return
+     */
+    public ExpressionVisitorRegistry register(ExpressionFormat format, ExpressionVisitor<?> expressionVisitor) {
+        return register(format.name(), expressionVisitor);
+    }
+
+    public ExpressionVisitorRegistry register(String format, ExpressionVisitor<?> expressionVisitor) {
+        return register(format, fieldMapping -> expressionVisitor);
+    }
+
+    public boolean contains(String format) {
+        return providers.containsKey(format);
+    }
+
+    public Set<String> getFormats() {
+        return providers.keySet();
+    }
+
+    /**
+     * Returns the visitor of the given format, the
+     * infix visitor when the format is null.
+     * @param format
+     * @param fieldMap
+     * @param fieldValueTransformer
+     * @param <T>
+     * @return
+     */
+    public <T> ExpressionVisitor<T> getExpressionVisitor(
+            ExpressionFormat format,
+            Map<String, String> fieldMap,
+            FieldValueTransformer fieldValueTransformer) {
+        return getExpressionVisitor(format, FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public <T> ExpressionVisitor<T> getExpressionVisitor(ExpressionFormat format, FieldMapping fieldMapping) {
+        return getExpressionVisitor((format == null ? ExpressionFormat.INFIX : format).name(), fieldMapping);
+    }
+
+    /**
+     * Returns the visitor of the given format.
+     * @param format
+     * @param fieldMapping
+     * @param <T>
+     * @return
+     * @throws UnsupportedOperationException If no visitor is registered for the format.
+     */
+    public <T> ExpressionVisitor<T> getExpressionVisitor(String format, FieldMapping fieldMapping) {
+        final ExpressionVisitorProvider provider = providers.get(format);
+        if (provider == null) {
+            throw new UnsupportedOperationException("No expression visitor registered for format: " + format);
+        }
+        return (ExpressionVisitor<T>) provider.getExpressionVisitor(fieldMapping);
+    }
+}
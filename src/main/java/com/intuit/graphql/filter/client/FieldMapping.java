@@ -0,0 +1,175 @@
+package com.intuit.graphql.filter.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable resolution of the filter field names to the
+ * target field names, built from the static field map and
+ * the field value transformer. The entries of the field map
+ * are resolved once, when the mapping is created; the names
+ * the transformer maps are memoized when it is cacheable
+ * (see {@link FieldValueTransformer#isCacheable()}), and
+ * unmapped names are never retained, so one instance can be
+ * built at startup and shared by all requests and visitors.
+ */
+public final class FieldMapping {
+
+    private static final FieldMapping IDENTITY = new FieldMapping(null, null);
+
+    private final Map<String, String> fieldMap;
+    private final FieldValueTransformer fieldValueTransformer;
+    private final Map<String, ResolvedField> mappedFields;
+    private final Map<String, ResolvedField> transformedFields;
+
+    private FieldMapping(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
+        this.fieldMap = fieldMap == null || fieldMap.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(fieldMap));
+        this.fieldValueTransformer = fieldValueTransformer;
+        final Map<String, ResolvedField> resolvedFields = new HashMap<>();
+        for (Map.Entry<String, String> entry : this.fieldMap.entrySet()) {
+            resolvedFields.put(entry.getKey(), new ResolvedField(entry.getValue(), false));
+        }
+        this.mappedFields = Collections.unmodifiableMap(resolvedFields);
+        this.transformedFields = fieldValueTransformer != null && fieldValueTransformer.isCacheable()
+                ? new ConcurrentHashMap<>()
+                : null;
+    }
+
+    /**
+     * Returns the field mapping of the given field map and
+     * transformer, both optional. The field map is copied.
+     * @param fieldMap
+     * @param fieldValueTransformer
+     * @return
+     */
+    public static FieldMapping of(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
+        if ((fieldMap == null || fieldMap.isEmpty()) && fieldValueTransformer == null) {
+            return IDENTITY;
+        }
+        return new FieldMapping(fieldMap, fieldValueTransformer);
+    }
+
+    /**
+     * Returns the field mapping leaving names and values as they are.
+     * @return
+     */
+    public static FieldMapping identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * Returns the resolution of the given field name.
+     * @param fieldName
+     * @return
+     */
+    public ResolvedField resolve(String fieldName) {
+        final ResolvedField mappedField = mappedFields.get(fieldName);
+        if (mappedField != null) {
+            return mappedField;
+        } else if (fieldValueTransformer == null) {
+            return new ResolvedField(fieldName, false);
+        }
+
+        final ResolvedField transformedField = transformedFields == null ? null : transformedFields.get(fieldName);
+        if (transformedField != null) {
+            return transformedField;
+        }
+        final String transformedName = fieldValueTransformer.transformField(fieldName);
+        if (transformedName == null) {
+            return new ResolvedField(fieldName, false);
+        }
+        final ResolvedField resolution = new ResolvedField(transformedName, true);
+        if (transformedFields != null) {
+            transformedFields.putIfAbsent(fieldName, resolution);
+        }
+        return resolution;
+    }
+
+    /**
+     * Returns the target name of the given field name.
+     * @param fieldName
+     * @return
+     */
+    public String resolveFieldName(String fieldName) {
+        return resolve(fieldName).getName();
+    }
+
+    /**
+     * Returns whether the given field name is mapped, by the
+     * field map or the transformer, to a target field. Nothing
+     * is memoized, the name may come from the client.
+     * @param fieldName
+     * @return
+     */
+    public boolean isMapped(String fieldName) {
+        if (mappedFields.containsKey(fieldName)) {
+            return true;
+        } else if (transformedFields != null && transformedFields.containsKey(fieldName)) {
+            return true;
+        }
+        return fieldValueTransformer != null && fieldValueTransformer.transformField(fieldName) != null;
+    }
+
+    /**
+     * Returns the value to filter the given field on, transformed
+     * when the field name is resolved by the transformer.
+     * @param fieldName
+     * @param value
+     * @return
+     */
+    public Object transformValue(String fieldName, Object value) {
+        return transformValue(resolve(fieldName), fieldName, value);
+    }
+
+    /**
+     * Returns the value to filter the given resolved field on.
+     * @param resolvedField
+     * @param fieldName
+     *          The filter field name.
+     * @param value
+     * @return
+     */
+    public Object transformValue(ResolvedField resolvedField, String fieldName, Object value) {
+        if (resolvedField.isValueTransformed()) {
+            final FieldValuePair fieldValuePair = fieldValueTransformer.transformValue(fieldName, value);
+            if (fieldValuePair != null && fieldValuePair.getValue() != null) {
+                return fieldValuePair.getValue();
+            }
+        }
+        return value;
+    }
+
+    public Map<String, String> getFieldMap() {
+        return fieldMap;
+    }
+
+    public FieldValueTransformer getFieldValueTransformer() {
+        return fieldValueTransformer;
+    }
+
+    /**
+     * Target name of a filter field and whether its
+     * values go through the transformer.
+     */
+    public static final class ResolvedField {
+        private final String name;
+        private final boolean valueTransformed;
+
+        private ResolvedField(String name, boolean valueTransformed) {
+            this.name = name;
+            this.valueTransformed = valueTransformed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isValueTransformed() {
+            return valueTransformed;
+        }
+    }
+}
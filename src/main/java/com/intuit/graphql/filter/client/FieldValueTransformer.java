@@ -38,5 +38,15 @@ public interface FieldValueTransformer {
      * @return
      */
     FieldValuePair<? extends Object> transformValue(String fieldName, Object value);
+
+    /**
+     * Returns true if {@link #transformField(String)} always returns
+     * the same name for a field name, letting the resolution be
+     * computed once and shared across requests.
+     * @return
+     */
+    default boolean isCacheable() {
+        return false;
+    }
 }
 
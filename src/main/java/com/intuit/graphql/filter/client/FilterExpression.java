@@ -15,12 +15,34 @@
  */
 package com.intuit.graphql.filter.client;
 
+import com.intuit.graphql.filter.ast.CompoundExpression;
 import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.Operator;
 import com.intuit.graphql.filter.visitors.ExpressionVisitor;
+import com.intuit.graphql.filter.visitors.MongoCriteriaExpressionVisitor;
+import com.intuit.graphql.filter.visitors.MongoIndexes;
+import com.intuit.graphql.filter.visitors.MongoQueryPlan;
+import com.intuit.graphql.filter.visitors.ResolvingExpressionVisitor;
 import graphql.language.Field;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.SelectedField;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * This class is used by clients of this
@@ -32,15 +54,23 @@ import java.util.Map;
  */
 public class FilterExpression {
     private Field field;
-    private Map<String, String> fieldMap;
+    private FieldMapping fieldMapping;
     private Expression expressionAst;
-    private FieldValueTransformer fieldValueTransformer;
+    private SortSpecification sortSpecification;
+    private KeysetPagination keysetPagination;
+    private Integer limit;
+    private DataFetchingFieldSelectionSet selectionSet;
+    private ExpressionVisitorRegistry registry;
 
     private FilterExpression(FilterExpressionBuilder expressionBuilder) {
         this.field = expressionBuilder.field;
-        this.fieldMap = expressionBuilder.fieldMap;
+        this.fieldMapping = expressionBuilder.fieldMapping;
         this.expressionAst = expressionBuilder.expressionAst;
-        this.fieldValueTransformer = expressionBuilder.fieldValueTransformer;
+        this.sortSpecification = expressionBuilder.sortSpecification;
+        this.keysetPagination = expressionBuilder.keysetPagination;
+        this.limit = expressionBuilder.limit;
+        this.selectionSet = expressionBuilder.selectionSet;
+        this.registry = expressionBuilder.registry;
     }
 
     /**
@@ -49,15 +79,28 @@ public class FilterExpression {
      */
     public static class FilterExpressionBuilder {
         public static final String FILTER_ARG = "filter";
+        public static final String AFTER_ARG = "after";
+        public static final String ORDER_BY_ARG = "orderBy";
+        public static final String FIRST_ARG = "first";
 
         private Field field;
         private Map<String,String> fieldMap;
         private Expression expressionAst;
         private Map args;
         private FieldValueTransformer fieldValueTransformer;
+        private FieldMapping fieldMapping;
+        private SortSpecification sortSpecification;
+        private String cursor;
+        private KeysetPagination keysetPagination;
+        private Integer limit;
+        private DataFetchingFieldSelectionSet selectionSet;
+        private GraphQLInputObjectType filterType;
+        private ExpressionVisitorRegistry registry;
+        private boolean sortArgument;
 
         private FilterExpressionBuilder () {
             fieldMap = new HashMap<>();
+            registry = ExpressionVisitorRegistry.getDefault();
         }
 
         public FilterExpressionBuilder field(Field field) {
@@ -75,6 +118,18 @@ public class FilterExpression {
             return this;
         }
 
+        /**
+         * Sets the field mapping, typically built once and shared
+         * across requests, replacing the field map and transformer
+         * given through {@link #map(Map)} and {@link #transform(FieldValueTransformer)}.
+         * @param fieldMapping
+         * @return
+         */
+        public FilterExpressionBuilder fieldMapping(FieldMapping fieldMapping) {
+            this.fieldMapping = fieldMapping;
+            return this;
+        }
+
         public FilterExpressionBuilder args(Map filterArgs) {
             this.args = filterArgs;
             return this;
@@ -85,6 +140,73 @@ public class FilterExpression {
             return this;
         }
 
+        /**
+         * Sets the sort specification used for sorting and keyset
+         * pagination, overriding the sort passed in the
+         * {@value #ORDER_BY_ARG} argument.
+         * @param sortSpecification
+         * @return
+         */
+        public FilterExpressionBuilder sort(SortSpecification sortSpecification) {
+            this.sortSpecification = sortSpecification;
+            return this;
+        }
+
+        /**
+         * Sets the cursor after which the page starts, overriding
+         * the cursor passed in the {@value #AFTER_ARG} argument.
+         * @param cursor
+         * @return
+         */
+        public FilterExpressionBuilder after(String cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of rows, overriding the
+         * limit passed in the {@value #FIRST_ARG} argument.
+         * @param limit
+         * @return
+         */
+        public FilterExpressionBuilder limit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Sets the selection set whose scalar fields
+         * are projected.
+         * @param selectionSet
+         * @return
+         */
+        public FilterExpressionBuilder selectionSet(DataFetchingFieldSelectionSet selectionSet) {
+            this.selectionSet = selectionSet;
+            return this;
+        }
+
+        /**
+         * Sets the filter input type, whose fields may be sorted
+         * on by the {@value #ORDER_BY_ARG} argument.
+         * @param filterType
+         * @return
+         */
+        public FilterExpressionBuilder filterType(GraphQLInputObjectType filterType) {
+            this.filterType = filterType;
+            return this;
+        }
+
+        /**
+         * Sets the registry serving the visitor of each
+         * format, the default registry otherwise.
+         * @param registry
+         * @return
+         */
+        public FilterExpressionBuilder registry(ExpressionVisitorRegistry registry) {
+            this.registry = registry;
+            return this;
+        }
+
         public FilterExpression build() {
             FilterExpressionParser expressionParser = new FilterExpressionParser();
             if (args != null) {
@@ -92,10 +214,59 @@ public class FilterExpression {
                 if (filter != null) {
                     expressionAst = expressionParser.parseFilterExpression((Map) filter);
                 }
+                if (cursor == null && args.get(AFTER_ARG) instanceof String) {
+                    cursor = (String) args.get(AFTER_ARG);
+                }
+                if (sortSpecification == null && args.get(ORDER_BY_ARG) != null) {
+                    sortSpecification = SortSpecification.fromArgument(args.get(ORDER_BY_ARG));
+                    sortArgument = true;
+                }
+                if (limit == null && args.get(FIRST_ARG) instanceof Number) {
+                    limit = ((Number) args.get(FIRST_ARG)).intValue();
+                }
+            }
+
+            if (fieldMapping == null) {
+                fieldMapping = FieldMapping.of(fieldMap, fieldValueTransformer);
+            }
+
+            if (sortArgument) {
+                validateSortFields();
+            }
+
+            if (sortSpecification != null && !sortSpecification.isEmpty() && cursor != null) {
+                keysetPagination = new KeysetPagination(sortSpecification, cursor);
             }
 
             return new FilterExpression(this);
         }
+
+        /**
+         * Rejects the sort fields of the argument which are neither
+         * mapped nor fields of the filter schema, i.e. of the filter
+         * type or leaves of the selection set, as they would reach
+         * the ORDER BY clause or the sort document unchecked.
+         */
+        private void validateSortFields() {
+            final Set<String> schemaFields = new HashSet<>();
+            if (filterType != null) {
+                for (GraphQLInputObjectField inputField : filterType.getFieldDefinitions()) {
+                    schemaFields.add(inputField.getName());
+                }
+                schemaFields.remove(Operator.AND.getKey());
+                schemaFields.remove(Operator.OR.getKey());
+                schemaFields.remove(Operator.NOT.getKey());
+            }
+            if (selectionSet != null) {
+                schemaFields.addAll(getLeafFieldNames(selectionSet));
+            }
+
+            for (SortSpecification.Order order : sortSpecification.getOrders()) {
+                if (!schemaFields.contains(order.getFieldName()) && !fieldMapping.isMapped(order.getFieldName())) {
+                    throw new InvalidFilterException("Invalid sort field: " + order.getFieldName());
+                }
+            }
+        }
     }
 
     public static FilterExpressionBuilder newFilterExpressionBuilder() {
@@ -110,10 +281,351 @@ public class FilterExpression {
      * @return
      */
     public <T> T getExpression(ExpressionFormat format) {
-        if (expressionAst == null) {
-            throw new InvalidFilterException("Missing or invalid filter arguments");
+        final Expression expression = getEffectiveExpression();
+        ExpressionVisitor<T> expressionVisitor = registry.getExpressionVisitor(format, fieldMapping);
+        return expressionVisitor.expression(expression);
+    }
+
+    /**
+     * This method returns the expression in the
+     * format registered under the given name.
+     * @param format
+     * @param <T>
+     * @return
+     */
+    public <T> T getExpression(String format) {
+        final Expression expression = getEffectiveExpression();
+        ExpressionVisitor<T> expressionVisitor = registry.getExpressionVisitor(format, fieldMapping);
+        return expressionVisitor.expression(expression);
+    }
+
+    /**
+     * This method returns the expression produced
+     * by the given, caller configured, visitor.
+     * @param expressionVisitor
+     * @param <T>
+     * @return
+     */
+    public <T> T getExpression(ExpressionVisitor<T> expressionVisitor) {
+        return expressionVisitor.expression(getEffectiveExpression());
+    }
+
+    /**
+     * This method returns the expression in each of the
+     * required formats. Field names are mapped and values
+     * transformed once, the resolved tree is then handed
+     * to the visitor of each format, built without field
+     * mapping.
+     * @param formats
+     * @return
+     *          Expressions keyed by format, in the given order.
+     */
+    public Map<ExpressionFormat, Object> getExpressions(ExpressionFormat... formats) {
+        final Expression resolvedExpression = getResolvedExpression();
+        final Map<ExpressionFormat, Object> expressions = new LinkedHashMap<>();
+        for (ExpressionFormat format : formats) {
+            final ExpressionVisitor<?> expressionVisitor = registry.getExpressionVisitor(format, FieldMapping.identity());
+            expressions.put(format, expressionVisitor.expression(resolvedExpression));
+        }
+        return expressions;
+    }
+
+    /**
+     * This method returns the expressions produced by the
+     * given, caller configured, visitors from one resolution
+     * of field names and values. The visitors must not map
+     * fields themselves.
+     * @param expressionVisitors
+     * @return
+     *          Expressions in visitor order.
+     */
+    public List<Object> getExpressions(ExpressionVisitor<?>... expressionVisitors) {
+        final Expression resolvedExpression = getResolvedExpression();
+        final List<Object> expressions = new ArrayList<>();
+        for (ExpressionVisitor<?> expressionVisitor : expressionVisitors) {
+            expressions.add(expressionVisitor.expression(resolvedExpression));
+        }
+        return expressions;
+    }
+
+    /**
+     * Returns the sort order, limit and projection
+     * mapped to the target fields. Sort fields of the
+     * {@value FilterExpressionBuilder#ORDER_BY_ARG} argument
+     * are checked when the expression is built, projected
+     * fields are the fields selected by the query followed
+     * by the sort fields, which {@link #cursorOf} reads.
+     * @return
+     */
+    public ResultShape getResultShape() {
+        final List<SortSpecification.Order> orders = new ArrayList<>();
+        if (sortSpecification != null) {
+            for (SortSpecification.Order order : sortSpecification.getOrders()) {
+                orders.add(new SortSpecification.Order(mapField(order.getFieldName()), order.getDirection()));
+            }
         }
-        ExpressionVisitor<T> expressionVisitor = ExpressionVisitorFactory.getExpressionVisitor(format, fieldMap, fieldValueTransformer);
+
+        final Map<String, String> projection = new LinkedHashMap<>();
+        if (selectionSet != null) {
+            for (String fieldName : getLeafFieldNames(selectionSet)) {
+                projection.put(fieldName, mapField(fieldName));
+            }
+        }
+        if (!projection.isEmpty() && sortSpecification != null) {
+            // The cursor of a row is built from its sort keys, selected or not
+            for (SortSpecification.Order order : sortSpecification.getOrders()) {
+                projection.putIfAbsent(order.getFieldName(), mapField(order.getFieldName()));
+            }
+        }
+        return new ResultShape(orders, limit, projection);
+    }
+
+    /**
+     * This method returns the complete query in the required
+     * format, i.e. the filter together with the sort order,
+     * limit and projection. SQL yields the clauses following
+     * the select list (see {@link ResultShape#toSqlColumns()}),
+     * Mongo a Query, with the case-insensitive collation of
+     * the visitor, and Elasticsearch a CriteriaQuery. Without
+     * filter arguments the query matches all rows. Other formats
+     * have no query form: use {@link #getJpaTupleQuery} or
+     * {@link ResultShape#toPageable()} for JPA, the result shape
+     * with the expression of the other formats.
+     * @param format
+     * @param <T>
+     * @return
+     * @throws IllegalArgumentException
+     *          if the format has no query form.
+     */
+    public <T> T getQuery(ExpressionFormat format) {
+        final ResultShape resultShape = getResultShape();
+        switch (format) {
+            case SQL:
+                final String whereClause = translate(format);
+                final String orderBy = resultShape.toSqlOrderBy();
+                final String limitClause = resultShape.toSqlLimit();
+                final StringBuilder query = new StringBuilder(whereClause);
+                for (String clause : new String[] {orderBy, limitClause}) {
+                    if (!clause.isEmpty()) {
+                        query.append(query.length() == 0 ? "" : " ").append(clause);
+                    }
+                }
+                return (T) query.toString();
+            case MONGO:
+                return (T) resultShape.toMongoQuery(translate(format), getMongoVisitor().getCaseInsensitiveCollation());
+            case ELASTICSEARCH:
+                return (T) resultShape.toElasticsearchQuery(translate(format));
+            default:
+                throw new IllegalArgumentException("No query form for format " + format
+                        + ", combine getExpression with getResultShape instead");
+        }
+    }
+
+    /**
+     * This method returns the index-aware plan of the Mongo
+     * filter, see {@link MongoCriteriaExpressionVisitor#plan}.
+     * The criteria are built by the registered Mongo visitor.
+     * @param indexes
+     * @return
+     */
+    public MongoQueryPlan getMongoQueryPlan(MongoIndexes indexes) {
+        return getMongoVisitor().plan(getOptionalExpression(), indexes);
+    }
+
+    /**
+     * This method returns the Mongo aggregation of the filter
+     * around the given $lookup and $unwind stages, see
+     * {@link MongoCriteriaExpressionVisitor#getPipeline}, with
+     * the selected and sort fields projected early, followed
+     * by the sort order and limit. The aggregation runs under
+     * the case-insensitive collation of the visitor, if any.
+     * @param joinStages
+     * @return
+     */
+    public Aggregation getMongoAggregation(List<? extends AggregationOperation> joinStages) {
+        final ResultShape resultShape = getResultShape();
+        final List<String> fieldNames = new ArrayList<>(resultShape.getProjection().values());
+        if (!fieldNames.isEmpty()) {
+            for (SortSpecification.Order order : resultShape.getOrders()) {
+                fieldNames.add(order.getFieldName());
+            }
+        }
+        final MongoCriteriaExpressionVisitor<?> visitor = getMongoVisitor();
+        return resultShape.toMongoAggregation(visitor.getPipeline(getOptionalExpression(), joinStages, fieldNames),
+                visitor.getCaseInsensitiveCollation());
+    }
+
+    private MongoCriteriaExpressionVisitor<?> getMongoVisitor() {
+        final ExpressionVisitor<?> expressionVisitor = registry.getExpressionVisitor(ExpressionFormat.MONGO, fieldMapping);
+        return expressionVisitor instanceof MongoCriteriaExpressionVisitor
+                ? (MongoCriteriaExpressionVisitor<?>) expressionVisitor
+                : new MongoCriteriaExpressionVisitor<>(fieldMapping);
+    }
+
+    /* The effective expression, null without filter arguments. */
+    private Expression getOptionalExpression() {
+        return expressionAst == null && keysetPagination == null ? null : getEffectiveExpression();
+    }
+
+    /**
+     * This method returns the JPA tuple query of the filter
+     * specification projecting the selected fields, see
+     * {@link ResultShape#toJpaTupleQuery}.
+     * @param criteriaBuilder
+     * @param entityClass
+     * @param <T>
+     * @return
+     */
+    public <T> jakarta.persistence.criteria.CriteriaQuery<Tuple> getJpaTupleQuery(
+            CriteriaBuilder criteriaBuilder, Class<T> entityClass) {
+        final Specification<T> specification = translate(ExpressionFormat.JPA);
+        return getResultShape().toJpaTupleQuery(criteriaBuilder, entityClass, specification);
+    }
+
+    /**
+     * This method returns the page, count, exists and capped
+     * count queries in the required format (Mongo or
+     * Elasticsearch). Only the page query seeks past the
+     * cursor, the others count the whole filtered connection.
+     * @param format
+     * @param <Q>
+     * @return
+     */
+    public <Q> PaginationQueries<Q> getPaginationQueries(ExpressionFormat format) {
+        switch (format) {
+            case MONGO:
+                return (PaginationQueries<Q>) PaginationQueries.mongo(translate(format), translateFilter(format),
+                        getMongoVisitor().getCaseInsensitiveCollation(), getResultShape());
+            case ELASTICSEARCH:
+                return (PaginationQueries<Q>) PaginationQueries.elasticsearch(
+                        translate(format), translateFilter(format), getResultShape());
+            default:
+                throw new UnsupportedOperationException("Pagination queries are not supported for format: " + format);
+        }
+    }
+
+    /**
+     * This method returns the page, count, exists and capped
+     * count SQL statements on the given table. Only the page
+     * statement seeks past the cursor.
+     * @param table
+     * @return
+     */
+    public PaginationQueries<String> getSqlPaginationQueries(String table) {
+        return PaginationQueries.sql(table, translate(ExpressionFormat.SQL),
+                translateFilter(ExpressionFormat.SQL), getResultShape());
+    }
+
+    public SortSpecification getSortSpecification() {
+        return sortSpecification;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the cursor pointing after the given row,
+     * to be returned to the client as the end cursor
+     * of the page.
+     * @param row
+     *          Row values keyed by GraphQL field name.
+     * @return
+     */
+    public String cursorOf(Map<String, ?> row) {
+        return KeysetPagination.cursorOf(requireSortSpecification(), row);
+    }
+
+    /**
+     * Returns the cursor pointing after the row whose
+     * values the given accessor returns.
+     * @param valueAccessor
+     *          Returns a row value for a GraphQL field name.
+     * @return
+     */
+    public String cursorOf(Function<String, ?> valueAccessor) {
+        return KeysetPagination.cursorOf(requireSortSpecification(), valueAccessor);
+    }
+
+    /**
+     * Returns the filter expression combined with
+     * the keyset predicate of the cursor, if any.
+     * @return
+     */
+    private Expression getEffectiveExpression() {
+        if (keysetPagination == null) {
+            if (expressionAst == null) {
+                throw new InvalidFilterException("Missing or invalid filter arguments");
+            }
+            return expressionAst;
+        }
+
+        final Expression seekExpression = keysetPagination.seekExpression();
+        return expressionAst == null
+                ? seekExpression
+                : new CompoundExpression(expressionAst, Operator.AND, seekExpression);
+    }
+
+    /**
+     * Returns the effective expression with the field
+     * names mapped and the values transformed.
+     * @return
+     */
+    private Expression getResolvedExpression() {
+        return new ResolvingExpressionVisitor(fieldMapping).expression(getEffectiveExpression());
+    }
+
+    /**
+     * Returns the filter translated to the given format,
+     * or the empty value of the format (empty SQL clause,
+     * null criteria) when there is nothing to filter on.
+     * @param format
+     * @param <T>
+     * @return
+     */
+    private <T> T translate(ExpressionFormat format) {
+        if (expressionAst == null && keysetPagination == null) {
+            return format == ExpressionFormat.SQL ? (T) "" : null;
+        }
+        return getExpression(format);
+    }
+
+    /* Names of the selected scalar and enum fields, validated by GraphQL against the schema. */
+    private static List<String> getLeafFieldNames(DataFetchingFieldSelectionSet selectionSet) {
+        final List<String> fieldNames = new ArrayList<>();
+        for (SelectedField selectedField : selectionSet.getImmediateFields()) {
+            if (GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(selectedField.getType()))) {
+                fieldNames.add(selectedField.getName());
+            }
+        }
+        return fieldNames;
+    }
+
+    /**
+     * Returns the filter without the keyset predicate translated
+     * to the given format, or the empty value of the format.
+     * @param format
+     * @param <T>
+     * @return
+     */
+    private <T> T translateFilter(ExpressionFormat format) {
+        if (keysetPagination == null) {
+            return translate(format);
+        } else if (expressionAst == null) {
+            return format == ExpressionFormat.SQL ? (T) "" : null;
+        }
+        final ExpressionVisitor<T> expressionVisitor = registry.getExpressionVisitor(format, fieldMapping);
         return expressionVisitor.expression(expressionAst);
     }
+
+    private String mapField(String fieldName) {
+        return fieldMapping.resolveFieldName(fieldName);
+    }
+
+    private SortSpecification requireSortSpecification() {
+        if (sortSpecification == null || sortSpecification.isEmpty()) {
+            throw new InvalidFilterException("Missing sort specification");
+        }
+        return sortSpecification;
+    }
 }
@@ -110,6 +110,12 @@ public class FilterExpressionParser {
     }
 
     private Expression handleFieldExpression(Map.Entry entry, final String key) {
+        if (isNestedFilter(entry.getValue())) {
+            final Expression nestedExpression = createExpressionTree((Map) entry.getValue());
+            prefixFields(nestedExpression, key);
+            return nestedExpression;
+        }
+
         final ExpressionField leftOperand = new ExpressionField(entry.getKey().toString());
         final BinaryExpression binaryExpression =
                 (entry.getValue() instanceof Map)
@@ -120,6 +126,50 @@ public class FilterExpressionParser {
         return binaryExpression;
     }
 
+    /**
+     * Returns true if the field value is the filter of an
+     * associated type, i.e. holds no relational operator.
+     * Its entries must then be field filters or logical
+     * operators, anything else is an unknown operator.
+     */
+    private boolean isNestedFilter(Object value) {
+        if (!(value instanceof Map)) {
+            return false;
+        }
+        if (((Map) value).isEmpty()) {
+            throw new InvalidFilterException("Empty field filter");
+        }
+        for (Object object : ((Map) value).entrySet()) {
+            final Map.Entry entry = (Map.Entry) object;
+            final String key = entry.getKey().toString();
+            if (isOperator(key)) {
+                if (KIND_BINARY.equals(getOperatorKind(key))) {
+                    return false;
+                }
+            } else if (!(entry.getValue() instanceof Map) && !(entry.getValue() instanceof Collection)) {
+                throw new InvalidFilterException("Unknown operator: " + key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Qualifies the field names of a nested filter with the
+     * association name, e.g. city becomes address.city.
+     */
+    private void prefixFields(Expression expression, String association) {
+        if (expression instanceof BinaryExpression) {
+            final BinaryExpression binaryExpression = (BinaryExpression) expression;
+            binaryExpression.setLeftOperand(
+                    new ExpressionField(association + "." + binaryExpression.getLeftOperand().infix()));
+        } else if (expression instanceof CompoundExpression) {
+            prefixFields(((CompoundExpression) expression).getLeftOperand(), association);
+            prefixFields(((CompoundExpression) expression).getRightOperand(), association);
+        } else if (expression instanceof UnaryExpression) {
+            prefixFields(((UnaryExpression) expression).getLeftOperand(), association);
+        }
+    }
+
     private Expression handleUnary(Map.Entry entry, String key) {
         final Expression operand = createExpressionTree((Map) entry.getValue());
         return new UnaryExpression(operand, getOperator(key), null);
@@ -130,7 +180,10 @@ public class FilterExpressionParser {
         final Operator operator = getOperator(key);
         binaryExpression.setOperator(operator);
 
-        if (entry.getValue() instanceof Collection) {
+        if (isJsonOperator(operator) && !(entry.getValue() instanceof String)) {
+            binaryExpression.setRightOperand(new ExpressionValue<>(getJson(entry)));
+            return binaryExpression;
+        } else if (entry.getValue() instanceof Collection) {
             final List expressionValues = new ArrayList<>();
             for (Object value : (List) entry.getValue()) {
                 expressionValues.add(convertObject(value));
@@ -177,6 +230,10 @@ public class FilterExpressionParser {
         return operatorRegistry.getOperator(key);
     }
 
+    private boolean isJsonOperator(Operator operator) {
+        return operator.getTypes().contains(Operator.TYPE_JSON);
+    }
+
     private String getOperatorKind(String key) {
         return getOperator(key).getKind().name();
     }
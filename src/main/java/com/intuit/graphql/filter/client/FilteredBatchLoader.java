@@ -0,0 +1,179 @@
+package com.intuit.graphql.filter.client;
+
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.CompoundExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionField;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.Operator;
+import org.dataloader.BatchLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Batch loader of the filtered children of parent objects,
+ * e.g. the addresses of employees, replacing one query per
+ * parent by one query per distinct filter. The keys loaded
+ * within one execution level are grouped by filter, each
+ * group is fetched by the expression
+ * (parentField IN (parent keys) AND filter) translated to
+ * the given format, and the rows are dispatched back to
+ * their parents by the parent key extractor.
+ *
+ * The query runs on the thread dispatching the data loader.
+ * @param <K>
+ *          The parent key type.
+ * @param <V>
+ *          The child type.
+ */
+public class FilteredBatchLoader<K, V> implements BatchLoader<FilteredBatchLoader.Key<K>, List<V>> {
+
+    private final ExpressionFormat format;
+    private final FieldMapping fieldMapping;
+    private final ExpressionVisitorRegistry registry;
+    private final String parentField;
+    private final Function<Object, List<V>> query;
+    private final Function<V, K> parentKeyExtractor;
+    private final FilterExpressionParser expressionParser;
+
+    /**
+     * @param format
+     * @param parentField
+     *          The child field holding the parent key.
+     * @param query
+     *          Fetches the children matching the translated expression.
+     * @param parentKeyExtractor
+     *          Returns the parent key of a child.
+     * @param <E>
+     *          The type of the translated expression.
+     */
+    public <E> FilteredBatchLoader(
+            ExpressionFormat format,
+            String parentField,
+            Function<E, List<V>> query,
+            Function<V, K> parentKeyExtractor) {
+        this(format, FieldMapping.identity(), ExpressionVisitorRegistry.getDefault(), parentField, query, parentKeyExtractor);
+    }
+
+    /**
+     * @param format
+     * @param fieldMapping
+     *          Mapping of the filter fields and of the parent field.
+     * @param registry
+     * @param parentField
+     *          The child field holding the parent key.
+     * @param query
+     *          Fetches the children matching the translated expression.
+     * @param parentKeyExtractor
+     *          Returns the parent key of a child.
+     * @param <E>
+     *          The type of the translated expression.
+     */
+    public <E> FilteredBatchLoader(
+            ExpressionFormat format,
+            FieldMapping fieldMapping,
+            ExpressionVisitorRegistry registry,
+            String parentField,
+            Function<E, List<V>> query,
+            Function<V, K> parentKeyExtractor) {
+        this.format = format;
+        this.fieldMapping = fieldMapping;
+        this.registry = registry;
+        this.parentField = parentField;
+        this.query = expression -> query.apply((E) expression);
+        this.parentKeyExtractor = parentKeyExtractor;
+        this.expressionParser = new FilterExpressionParser();
+    }
+
+    @Override
+    public CompletionStage<List<List<V>>> load(List<Key<K>> keys) {
+        final Map<Map<String, Object>, Set<K>> parentKeysByFilter = new LinkedHashMap<>();
+        for (Key<K> key : keys) {
+            parentKeysByFilter.computeIfAbsent(key.getFilter(), filter -> new LinkedHashSet<>()).add(key.getParentKey());
+        }
+
+        final Map<Map<String, Object>, Map<K, List<V>>> childrenByFilter = new HashMap<>();
+        for (Map.Entry<Map<String, Object>, Set<K>> group : parentKeysByFilter.entrySet()) {
+            final List<V> children = query.apply(registry.getExpressionVisitor(format, fieldMapping)
+                    .expression(getExpression(group.getKey(), group.getValue())));
+            final Map<K, List<V>> childrenByParent = new HashMap<>();
+            for (V child : children) {
+                childrenByParent.computeIfAbsent(parentKeyExtractor.apply(child), parentKey -> new ArrayList<>()).add(child);
+            }
+            childrenByFilter.put(group.getKey(), childrenByParent);
+        }
+
+        final List<List<V>> values = new ArrayList<>(keys.size());
+        for (Key<K> key : keys) {
+            values.add(childrenByFilter.get(key.getFilter()).getOrDefault(key.getParentKey(), Collections.emptyList()));
+        }
+        return CompletableFuture.completedFuture(values);
+    }
+
+    private Expression getExpression(Map<String, Object> filter, Set<K> parentKeys) {
+        final Expression parentExpression = new BinaryExpression(
+                new ExpressionField(parentField), Operator.IN, new ExpressionValue(new ArrayList<>(parentKeys)));
+        final Expression filterExpression = filter == null ? null : expressionParser.parseFilterExpression(filter);
+        return filterExpression == null
+                ? parentExpression
+                : new CompoundExpression(parentExpression, Operator.AND, filterExpression);
+    }
+
+    /**
+     * Key of the filtered children of a parent.
+     * @param <K>
+     *          The parent key type.
+     */
+    public static final class Key<K> {
+        private final K parentKey;
+        private final Map<String, Object> filter;
+
+        private Key(K parentKey, Map<String, Object> filter) {
+            this.parentKey = parentKey;
+            this.filter = filter;
+        }
+
+        /**
+         * @param parentKey
+         * @param filter
+         *          The filter argument of the child field, null for none.
+         * @param <K>
+         * @return
+         */
+        public static <K> Key<K> of(K parentKey, Map<String, Object> filter) {
+            return new Key<>(parentKey, filter);
+        }
+
+        public K getParentKey() {
+            return parentKey;
+        }
+
+        public Map<String, Object> getFilter() {
+            return filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key<?> key = (Key<?>) o;
+            return Objects.equals(parentKey, key.parentKey) && Objects.equals(filter, key.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(parentKey, filter);
+        }
+    }
+}
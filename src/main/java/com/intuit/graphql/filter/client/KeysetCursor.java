@@ -0,0 +1,157 @@
+package com.intuit.graphql.filter.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Encodes the sort key values of the last row of a page
+ * into an opaque, URL safe cursor and back. Value types
+ * survive the round trip so the decoded values compare
+ * against the sort keys the same way the originals did.
+ * Dates are normalized to {@link Instant} like filter
+ * values are.
+ */
+public class KeysetCursor {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String TYPE_STRING = "s";
+    private static final String TYPE_INTEGER = "i";
+    private static final String TYPE_LONG = "l";
+    private static final String TYPE_DOUBLE = "d";
+    private static final String TYPE_DECIMAL = "n";
+    private static final String TYPE_BOOLEAN = "b";
+    private static final String TYPE_INSTANT = "t";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Returns the cursor for the given sort key values.
+     * @param values
+     * @return
+     */
+    public static String encode(List<?> values) {
+        final ArrayNode arrayNode = OBJECT_MAPPER.createArrayNode();
+        for (Object value : values) {
+            encodeValue(arrayNode.addArray(), value);
+        }
+
+        final byte[] json = arrayNode.toString().getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    }
+
+    /**
+     * Returns the sort key values of the given cursor.
+     * @param cursor
+     * @return
+     */
+    public static List<Object> decode(String cursor) {
+        final JsonNode arrayNode;
+        try {
+            arrayNode = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidFilterException("Invalid cursor: " + cursor);
+        }
+
+        if (arrayNode == null || !arrayNode.isArray()) {
+            throw new InvalidFilterException("Invalid cursor: " + cursor);
+        }
+
+        final List<Object> values = new ArrayList<>(arrayNode.size());
+        for (JsonNode valueNode : arrayNode) {
+            values.add(decodeValue(valueNode, cursor));
+        }
+        return values;
+    }
+
+    private static void encodeValue(ArrayNode valueNode, Object value) {
+        if (value == null) {
+            throw new InvalidFilterException("Cursor values must not be null");
+        }
+
+        final Object normalized = normalizeDate(value);
+        if (normalized instanceof Integer || normalized instanceof Short || normalized instanceof Byte) {
+            valueNode.add(TYPE_INTEGER).add(((Number) normalized).intValue());
+        } else if (normalized instanceof Long) {
+            valueNode.add(TYPE_LONG).add((Long) normalized);
+        } else if (normalized instanceof Double || normalized instanceof Float) {
+            valueNode.add(TYPE_DOUBLE).add(((Number) normalized).doubleValue());
+        } else if (normalized instanceof BigDecimal || normalized instanceof BigInteger) {
+            valueNode.add(TYPE_DECIMAL).add(normalized.toString());
+        } else if (normalized instanceof Boolean) {
+            valueNode.add(TYPE_BOOLEAN).add((Boolean) normalized);
+        } else if (normalized instanceof Instant) {
+            valueNode.add(TYPE_INSTANT).add(normalized.toString());
+        } else {
+            valueNode.add(TYPE_STRING).add(normalized.toString());
+        }
+    }
+
+    private static Object decodeValue(JsonNode valueNode, String cursor) {
+        if (!valueNode.isArray() || valueNode.size() != 2) {
+            throw new InvalidFilterException("Invalid cursor: " + cursor);
+        }
+
+        final JsonNode value = valueNode.get(1);
+        switch (valueNode.get(0).asText()) {
+            case TYPE_STRING:
+                return value.asText();
+            case TYPE_INTEGER:
+                return value.asInt();
+            case TYPE_LONG:
+                return value.asLong();
+            case TYPE_DOUBLE:
+                return value.asDouble();
+            case TYPE_BOOLEAN:
+                return value.asBoolean();
+            case TYPE_DECIMAL:
+            case TYPE_INSTANT:
+                return parseValue(valueNode.get(0).asText(), value.asText(), cursor);
+            default:
+                throw new InvalidFilterException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static Object parseValue(String type, String value, String cursor) {
+        try {
+            return TYPE_DECIMAL.equals(type) ? new BigDecimal(value) : Instant.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidFilterException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static Object normalizeDate(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toInstant();
+        } else if (value instanceof Date) {
+            return Instant.ofEpochMilli(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay().atZone(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant();
+        }
+        return value;
+    }
+}
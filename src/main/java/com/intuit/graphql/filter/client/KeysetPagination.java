@@ -0,0 +1,86 @@
+package com.intuit.graphql.filter.client;
+
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionField;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.KeysetExpression;
+import com.intuit.graphql.filter.ast.Operator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) pagination over a sort specification.
+ * Instead of skipping OFFSET rows, the next page is
+ * selected with a predicate on the sort keys of the last
+ * row of the previous page, which an index on the sort
+ * keys serves in constant time whatever the page depth.
+ *
+ * The sort keys must be non null and, taken together,
+ * unique (e.g. end with the primary key) for pages to
+ * neither skip nor repeat rows.
+ */
+public class KeysetPagination {
+    private final SortSpecification sortSpecification;
+    private final List<Object> values;
+
+    public KeysetPagination(SortSpecification sortSpecification, String cursor) {
+        this.sortSpecification = sortSpecification;
+        this.values = KeysetCursor.decode(cursor);
+        if (values.size() != sortSpecification.getOrders().size()) {
+            throw new InvalidFilterException("Cursor does not match the sort specification");
+        }
+    }
+
+    /**
+     * Returns the predicate selecting the rows after
+     * the cursor.
+     * @return
+     */
+    public Expression seekExpression() {
+        final List<BinaryExpression> boundaries = new ArrayList<>();
+        final List<SortSpecification.Order> orders = sortSpecification.getOrders();
+        for (int i = 0; i < orders.size(); i++) {
+            final SortSpecification.Order order = orders.get(i);
+            final Operator operator = order.getDirection() == SortSpecification.Direction.DESC ? Operator.LT : Operator.GT;
+            boundaries.add(new BinaryExpression(
+                    new ExpressionField(order.getFieldName()), operator, new ExpressionValue<>(values.get(i))));
+        }
+
+        return boundaries.size() == 1 ? boundaries.get(0) : new KeysetExpression(boundaries);
+    }
+
+    public SortSpecification getSortSpecification() {
+        return sortSpecification;
+    }
+
+    /**
+     * Returns the cursor pointing after the given row.
+     * @param sortSpecification
+     * @param row
+     *          Row values keyed by GraphQL field name.
+     * @return
+     */
+    public static String cursorOf(SortSpecification sortSpecification, Map<String, ?> row) {
+        return cursorOf(sortSpecification, (Function<String, Object>) row::get);
+    }
+
+    /**
+     * Returns the cursor pointing after the row
+     * whose values the given accessor returns.
+     * @param sortSpecification
+     * @param valueAccessor
+     *          Returns a row value for a GraphQL field name.
+     * @return
+     */
+    public static String cursorOf(SortSpecification sortSpecification, Function<String, ?> valueAccessor) {
+        final List<Object> values = new ArrayList<>();
+        for (SortSpecification.Order order : sortSpecification.getOrders()) {
+            values.add(valueAccessor.apply(order.getFieldName()));
+        }
+        return KeysetCursor.encode(values);
+    }
+}
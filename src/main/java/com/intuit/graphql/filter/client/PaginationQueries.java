@@ -0,0 +1,165 @@
+package com.intuit.graphql.filter.client;
+
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The queries backing a connection page: the page query itself,
+ * a full count for {@code totalCount}, an existence probe and a
+ * count capped at a given number of rows, so that pagination
+ * metadata does not require an unbounded count. The page query
+ * seeks past the cursor, the counts and the probe apply the
+ * filter alone, i.e. they cover the whole connection.
+ * @param <Q>
+ */
+public class PaginationQueries<Q> {
+    private final Supplier<Q> pageQuery;
+    private final Supplier<Q> countQuery;
+    private final Supplier<Q> existsQuery;
+    private final IntFunction<Q> cappedCountQuery;
+
+    private PaginationQueries(Supplier<Q> pageQuery, Supplier<Q> countQuery,
+                              Supplier<Q> existsQuery, IntFunction<Q> cappedCountQuery) {
+        this.pageQuery = pageQuery;
+        this.countQuery = countQuery;
+        this.existsQuery = existsQuery;
+        this.cappedCountQuery = cappedCountQuery;
+    }
+
+    /**
+     * Returns the query of the page rows, sorted,
+     * limited and projected.
+     * @return
+     */
+    public Q getPageQuery() {
+        return pageQuery.get();
+    }
+
+    /**
+     * Returns the query counting all matching rows.
+     * @return
+     */
+    public Q getCountQuery() {
+        return countQuery.get();
+    }
+
+    /**
+     * Returns the query probing whether any row matches,
+     * reading at most one row.
+     * @return
+     */
+    public Q getExistsQuery() {
+        return existsQuery.get();
+    }
+
+    /**
+     * Returns the query counting the matching rows up to
+     * the given cap, reading at most cap rows.
+     * @param cap
+     * @return
+     */
+    public Q getCappedCountQuery(int cap) {
+        if (cap < 1) {
+            throw new IllegalArgumentException("Count cap must be positive: " + cap);
+        }
+        return cappedCountQuery.apply(cap);
+    }
+
+    /**
+     * Returns the SQL statements on the given table.
+     * @param table
+     * @param pageWhereClause
+     *          The WHERE clause of the page, empty to match all rows.
+     * @param whereClause
+     *          The WHERE clause of the filter, empty to match all rows.
+     * @param resultShape
+     * @return
+     */
+    static PaginationQueries<String> sql(
+            String table, String pageWhereClause, String whereClause, ResultShape resultShape) {
+        final String from = join("FROM " + table, whereClause);
+        return new PaginationQueries<>(
+                () -> join("SELECT " + resultShape.toSqlColumns(), "FROM " + table, pageWhereClause,
+                        resultShape.toSqlOrderBy(), resultShape.toSqlLimit()),
+                () -> join("SELECT COUNT(*)", from),
+                () -> join("SELECT 1", from, "LIMIT 1"),
+                cap -> "SELECT COUNT(*) FROM (" + join("SELECT 1", from, "LIMIT " + cap) + ") capped");
+    }
+
+    /**
+     * Returns the Mongo queries, counts are meant for
+     * MongoOperations#count which honours the query limit.
+     * @param pageCriteria
+     *          Page criteria, or null to match all documents.
+     * @param criteria
+     *          Filter criteria, or null to match all documents.
+     * @param collation
+     *          Collation of the criteria, or null for none.
+     * @param resultShape
+     * @return
+     */
+    static PaginationQueries<Query> mongo(
+            Criteria pageCriteria, Criteria criteria, Collation collation, ResultShape resultShape) {
+        final Supplier<Query> filterQuery = () -> (criteria == null ? new Query() : new Query(criteria))
+                .collation(collation);
+        return new PaginationQueries<>(
+                () -> resultShape.toMongoQuery(pageCriteria, collation),
+                filterQuery,
+                () -> filterQuery.get().limit(1),
+                cap -> filterQuery.get().limit(cap));
+    }
+
+    /**
+     * Returns the Elasticsearch queries, counts are read
+     * from the total hits of a search without hits.
+     * @param pageCriteria
+     *          Page criteria, or null to match all documents.
+     * @param criteria
+     *          Filter criteria, or null to match all documents.
+     * @param resultShape
+     * @return
+     */
+    static PaginationQueries<CriteriaQuery> elasticsearch(
+            org.springframework.data.elasticsearch.core.query.Criteria pageCriteria,
+            org.springframework.data.elasticsearch.core.query.Criteria criteria, ResultShape resultShape) {
+        final Supplier<CriteriaQuery> filterQuery = () -> new CriteriaQuery(
+                criteria == null ? new org.springframework.data.elasticsearch.core.query.Criteria() : criteria);
+        return new PaginationQueries<>(
+                () -> resultShape.toElasticsearchQuery(pageCriteria),
+                () -> {
+                    final CriteriaQuery query = filterQuery.get();
+                    query.setMaxResults(0);
+                    query.setTrackTotalHits(true);
+                    return query;
+                },
+                () -> {
+                    final CriteriaQuery query = filterQuery.get();
+                    query.setMaxResults(1);
+                    query.setTrackTotalHits(false);
+                    return query;
+                },
+                cap -> {
+                    final CriteriaQuery query = filterQuery.get();
+                    query.setMaxResults(0);
+                    query.setTrackTotalHitsUpTo(cap);
+                    return query;
+                });
+    }
+
+    private static String join(String... clauses) {
+        final List<String> parts = new ArrayList<>(clauses.length);
+        for (String clause : clauses) {
+            if (clause != null && !clause.isEmpty()) {
+                parts.add(clause);
+            }
+        }
+        return String.join(" ", parts);
+    }
+}
@@ -0,0 +1,292 @@
+package com.intuit.graphql.filter.client;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The sort order, row limit and projected fields of a
+ * query, with field names already mapped to the target
+ * fields, rendered for each backend so that sorting,
+ * limiting and projecting happen in the data store
+ * instead of in application code.
+ */
+public class ResultShape {
+    private final List<SortSpecification.Order> orders;
+    private final Integer limit;
+    private final Map<String, String> projection;
+
+    /**
+     * @param orders
+     *          Sort keys on target field names.
+     * @param limit
+     *          Maximum number of rows, or null.
+     * @param projection
+     *          Target field names keyed by GraphQL field name,
+     *          empty to fetch every field.
+     */
+    public ResultShape(List<SortSpecification.Order> orders, Integer limit, Map<String, String> projection) {
+        this.orders = Collections.unmodifiableList(new ArrayList<>(orders));
+        this.limit = limit;
+        this.projection = Collections.unmodifiableMap(new LinkedHashMap<>(projection));
+    }
+
+    public List<SortSpecification.Order> getOrders() {
+        return orders;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the target field names keyed by GraphQL
+     * field name, empty when every field is needed.
+     * @return
+     */
+    public Map<String, String> getProjection() {
+        return projection;
+    }
+
+    /**
+     * Returns the SQL select list, {@code *} when
+     * no projection is known.
+     * @return
+     */
+    public String toSqlColumns() {
+        return projection.isEmpty() ? "*" : String.join(", ", projection.values());
+    }
+
+    /**
+     * Returns the SQL ORDER BY clause, empty when unsorted.
+     * @return
+     */
+    public String toSqlOrderBy() {
+        if (orders.isEmpty()) {
+            return "";
+        }
+        return orders.stream()
+                .map(order -> order.getFieldName() + " " + order.getDirection().name())
+                .collect(Collectors.joining(", ", "ORDER BY ", ""));
+    }
+
+    /**
+     * Returns the SQL LIMIT clause, empty when unlimited.
+     * @return
+     */
+    public String toSqlLimit() {
+        return limit == null ? "" : "LIMIT " + limit;
+    }
+
+    public Sort toSort() {
+        if (orders.isEmpty()) {
+            return Sort.unsorted();
+        }
+        return Sort.by(orders.stream()
+                .map(order -> order.getDirection() == SortSpecification.Direction.DESC
+                        ? Sort.Order.desc(order.getFieldName())
+                        : Sort.Order.asc(order.getFieldName()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns the first page of the limit with the sort order,
+     * to be passed to Spring Data repositories.
+     * @return
+     */
+    public Pageable toPageable() {
+        return limit == null ? Pageable.unpaged(toSort()) : PageRequest.of(0, limit, toSort());
+    }
+
+    /**
+     * Returns the JPA selections of the projected fields, aliased
+     * with their GraphQL field names, for a tuple query.
+     * @param from
+     * @return
+     */
+    public List<Selection<?>> toJpaSelections(From<?, ?> from) {
+        final List<Selection<?>> selections = new ArrayList<>(projection.size());
+        for (Map.Entry<String, String> field : projection.entrySet()) {
+            selections.add(from.get(field.getValue()).alias(field.getKey()));
+        }
+        return selections;
+    }
+
+    /**
+     * Returns a copy of this shape also projecting the given
+     * field, e.g. a key needed to resolve nested fields. When
+     * every field is fetched the shape is returned as is.
+     * @param fieldName
+     * @param targetFieldName
+     * @return
+     */
+    public ResultShape withField(String fieldName, String targetFieldName) {
+        if (projection.isEmpty() || projection.containsKey(fieldName)) {
+            return this;
+        }
+        final Map<String, String> fields = new LinkedHashMap<>(projection);
+        fields.put(fieldName, targetFieldName);
+        return new ResultShape(orders, limit, fields);
+    }
+
+    /**
+     * Returns the JPA tuple query selecting the projected fields
+     * of the entities matching the specification, with the sort
+     * order applied. Only the selected columns are read and no
+     * entity is hydrated; without projection the entity itself
+     * is selected. The limit is applied with setMaxResults on
+     * the typed query.
+     * @param criteriaBuilder
+     * @param entityClass
+     * @param specification
+     *          Filter specification, or null to match all entities.
+     * @param <T>
+     * @return
+     */
+    public <T> jakarta.persistence.criteria.CriteriaQuery<Tuple> toJpaTupleQuery(
+            CriteriaBuilder criteriaBuilder, Class<T> entityClass, Specification<T> specification) {
+        final jakarta.persistence.criteria.CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        final Root<T> root = query.from(entityClass);
+        if (projection.isEmpty()) {
+            query.multiselect(root);
+        } else {
+            query.multiselect(toJpaSelections(root));
+        }
+        if (specification != null) {
+            query.where(specification.toPredicate(root, query, criteriaBuilder));
+        }
+        if (!orders.isEmpty()) {
+            query.orderBy(orders.stream()
+                    .map(order -> order.getDirection() == SortSpecification.Direction.DESC
+                            ? criteriaBuilder.desc(root.get(order.getFieldName()))
+                            : criteriaBuilder.asc(root.get(order.getFieldName())))
+                    .collect(Collectors.toList()));
+        }
+        return query;
+    }
+
+    /**
+     * Returns the tuples as rows keyed by GraphQL field name.
+     * @param tuples
+     * @return
+     */
+    public static List<Map<String, Object>> toRows(List<Tuple> tuples) {
+        final List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            final Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the Mongo query for the given criteria
+     * with the sort, limit and field projection applied.
+     * @param criteria
+     *          Filter criteria, or null to match all documents.
+     * @return
+     */
+    public Query toMongoQuery(Criteria criteria) {
+        return toMongoQuery(criteria, null);
+    }
+
+    /**
+     * Returns the Mongo query for the given criteria
+     * with the sort, limit, field projection and
+     * collation applied.
+     * @param criteria
+     *          Filter criteria, or null to match all documents.
+     * @param collation
+     *          Collation of the criteria, or null for none.
+     * @return
+     */
+    public Query toMongoQuery(Criteria criteria, Collation collation) {
+        final Query query = criteria == null ? new Query() : new Query(criteria);
+        query.collation(collation);
+        query.with(toSort());
+        if (limit != null) {
+            query.limit(limit);
+        }
+        if (!projection.isEmpty()) {
+            query.fields().include(projection.values().toArray(new String[0]));
+        }
+        return query;
+    }
+
+    /**
+     * Returns the aggregation of the given stages followed
+     * by the sort order and limit.
+     * @param stages
+     * @return
+     */
+    public Aggregation toMongoAggregation(List<AggregationOperation> stages) {
+        return toMongoAggregation(stages, null);
+    }
+
+    /**
+     * Returns the aggregation of the given stages followed
+     * by the sort order and limit, run under the collation.
+     * @param stages
+     * @param collation
+     *          Collation of the stages, or null for none.
+     * @return
+     */
+    public Aggregation toMongoAggregation(List<AggregationOperation> stages, Collation collation) {
+        final List<AggregationOperation> pipeline = new ArrayList<>(stages);
+        if (!orders.isEmpty()) {
+            pipeline.add(Aggregation.sort(toSort()));
+        }
+        if (limit != null) {
+            pipeline.add(Aggregation.limit(limit));
+        }
+        final Aggregation aggregation = Aggregation.newAggregation(pipeline);
+        return collation == null
+                ? aggregation
+                : aggregation.withOptions(AggregationOptions.builder().collation(collation).build());
+    }
+
+    /**
+     * Returns the Elasticsearch query for the given criteria
+     * with the sort, limit and source filter applied.
+     * @param criteria
+     *          Filter criteria, or null to match all documents.
+     * @return
+     */
+    public CriteriaQuery toElasticsearchQuery(org.springframework.data.elasticsearch.core.query.Criteria criteria) {
+        final CriteriaQuery query = new CriteriaQuery(
+                criteria == null ? new org.springframework.data.elasticsearch.core.query.Criteria() : criteria);
+        query.addSort(toSort());
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        if (!projection.isEmpty()) {
+            query.addSourceFilter(new FetchSourceFilter(projection.values().toArray(new String[0]), null));
+        }
+        return query;
+    }
+}
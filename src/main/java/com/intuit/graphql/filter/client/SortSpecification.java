@@ -0,0 +1,121 @@
+package com.intuit.graphql.filter.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ordered list of sort keys, e.g. {@code (age ASC, id ASC)}.
+ * Field names are the GraphQL (source) field names, they are
+ * mapped to the target fields like filter fields are.
+ */
+public class SortSpecification {
+
+    public enum Direction {
+        ASC, DESC
+    }
+
+    /**
+     * A single sort key.
+     */
+    public static class Order {
+        private final String fieldName;
+        private final Direction direction;
+
+        public Order(String fieldName, Direction direction) {
+            this.fieldName = fieldName;
+            this.direction = direction;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+    }
+
+    private static final String FIELD_KEY = "field";
+    private static final String DIRECTION_KEY = "direction";
+
+    private final List<Order> orders;
+
+    private SortSpecification(List<Order> orders) {
+        this.orders = Collections.unmodifiableList(new ArrayList<>(orders));
+    }
+
+    public static SortSpecification of(Order... orders) {
+        return new SortSpecification(Arrays.asList(orders));
+    }
+
+    public static SortSpecification of(List<Order> orders) {
+        return new SortSpecification(orders);
+    }
+
+    /**
+     * Parses a GraphQL sort argument, either a list of
+     * {@code {field: age, direction: DESC}} entries or of
+     * {@code {age: DESC}} entries, or a single such entry.
+     * @param argument
+     * @return
+     */
+    public static SortSpecification fromArgument(Object argument) {
+        final List<Order> orders = new ArrayList<>();
+        if (argument instanceof List) {
+            for (Object entry : (List<?>) argument) {
+                addOrders(orders, entry);
+            }
+        } else if (argument != null) {
+            addOrders(orders, argument);
+        }
+        return new SortSpecification(orders);
+    }
+
+    private static void addOrders(List<Order> orders, Object entry) {
+        if (!(entry instanceof Map)) {
+            throw new InvalidFilterException("Invalid sort argument: " + entry);
+        }
+
+        final Map<?, ?> map = (Map<?, ?>) entry;
+        if (map.containsKey(FIELD_KEY)) {
+            orders.add(new Order(String.valueOf(map.get(FIELD_KEY)), parseDirection(map.get(DIRECTION_KEY))));
+            return;
+        }
+
+        for (Map.Entry<?, ?> order : map.entrySet()) {
+            orders.add(new Order(String.valueOf(order.getKey()), parseDirection(order.getValue())));
+        }
+    }
+
+    private static Direction parseDirection(Object direction) {
+        if (direction == null) {
+            return Direction.ASC;
+        }
+
+        try {
+            return Direction.valueOf(direction.toString().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterException("Invalid sort direction: " + direction);
+        }
+    }
+
+    public static Order asc(String fieldName) {
+        return new Order(fieldName, Direction.ASC);
+    }
+
+    public static Order desc(String fieldName) {
+        return new Order(fieldName, Direction.DESC);
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+}
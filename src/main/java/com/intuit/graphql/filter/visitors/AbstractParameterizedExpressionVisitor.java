@@ -0,0 +1,137 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.CompoundExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionField;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.ast.UnaryExpression;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+import com.intuit.graphql.filter.visitors.ParameterizedSQLExpressionValueVisitor.BindMarkers;
+import com.intuit.graphql.filter.visitors.ParameterizedSQLExpressionValueVisitor.InListBinding;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the visitors generating a SQL WHERE
+ * clause with bind markers together with the values
+ * to bind on them. The SQL is rendered by a
+ * {@link SQLExpressionVisitor}, which can be configured
+ * through {@link #getSqlExpressionVisitor()}.
+ * The values of a call are collected by a value visitor
+ * of that call, so configured instances are thread-safe.
+ * @param <T>
+ */
+public abstract class AbstractParameterizedExpressionVisitor<T> implements ExpressionVisitor<T> {
+
+    private final SQLExpressionVisitor sqlExpressionVisitor;
+    private final BindMarkers bindMarkers;
+    private InListBinding inListBinding;
+
+    protected AbstractParameterizedExpressionVisitor(
+            Map<String, String> fieldMap,
+            FieldValueTransformer fieldValueTransformer,
+            BindMarkers bindMarkers) {
+        this(FieldMapping.of(fieldMap, fieldValueTransformer), bindMarkers);
+    }
+
+    protected AbstractParameterizedExpressionVisitor(FieldMapping fieldMapping, BindMarkers bindMarkers) {
+        this.sqlExpressionVisitor = SQLExpressionVisitor.of(fieldMapping);
+        this.bindMarkers = bindMarkers;
+        if (bindMarkers == BindMarkers.QUESTION_MARK) {
+            // A bare ? would be taken for a bind marker, drivers using ? markers read ?? as the operator
+            sqlExpressionVisitor.addMapping(Operator.JSON_HAS_KEY, "??");
+        }
+        setInListBinding(InListBinding.EXPAND);
+    }
+
+    /**
+     * Creates the result from the rendered SQL and
+     * the values in bind marker order.
+     * @param sql
+     * @param parameters
+     * @return
+     */
+    protected abstract T createExpression(String sql, List<Object> parameters);
+
+    /**
+     * Returns the parameterized expression from the expression tree.
+     * @param expression
+     * @return
+     */
+    @Override
+    public T expression(Expression expression) {
+        final ParameterizedSQLExpressionValueVisitor valueVisitor = newValueVisitor();
+        // values are bound, the SQL only holds bind markers: there is no metadata to collect
+        final String sql = sqlExpressionVisitor.expression(expression, valueVisitor, null);
+        return createExpression(sql, valueVisitor.getParameters());
+    }
+
+    @Override
+    public T visitCompoundExpression(CompoundExpression compoundExpression, T data) {
+        return visit(compoundExpression, data);
+    }
+
+    @Override
+    public T visitBinaryExpression(BinaryExpression binaryExpression, T data) {
+        return visit(binaryExpression, data);
+    }
+
+    @Override
+    public T visitUnaryExpression(UnaryExpression unaryExpression, T data) {
+        return visit(unaryExpression, data);
+    }
+
+    @Override
+    public T visitExpressionField(ExpressionField field, T data) {
+        return visit(field, data);
+    }
+
+    @Override
+    public T visitExpressionValue(ExpressionValue<? extends Comparable> value, T data) {
+        return visit(value, data);
+    }
+
+    public SQLExpressionVisitor getSqlExpressionVisitor() {
+        return sqlExpressionVisitor;
+    }
+
+    public InListBinding getInListBinding() {
+        return inListBinding;
+    }
+
+    /**
+     * Sets how IN lists are bound. {@link InListBinding#ARRAY}
+     * keeps one SQL text whatever the list size, but requires
+     * a database supporting {@code = ANY(array)}.
+     * @param inListBinding
+     */
+    public void setInListBinding(InListBinding inListBinding) {
+        this.inListBinding = inListBinding;
+        sqlExpressionVisitor.addMapping(Operator.IN, inListBinding == InListBinding.ARRAY ? "=" : "IN");
+    }
+
+    public BindMarkers getBindMarkers() {
+        return bindMarkers;
+    }
+
+    /**
+     * Returns the SQL of a partial result.
+     * @param data
+     * @return
+     */
+    protected abstract String sql(T data);
+
+    private T visit(Expression expression, T data) {
+        final ParameterizedSQLExpressionValueVisitor valueVisitor = newValueVisitor();
+        final String sql = sqlExpressionVisitor.visit(expression, sql(data), valueVisitor, null);
+        return createExpression(sql, valueVisitor.getParameters());
+    }
+
+    private ParameterizedSQLExpressionValueVisitor newValueVisitor() {
+        return new ParameterizedSQLExpressionValueVisitor(inListBinding, bindMarkers);
+    }
+}
@@ -0,0 +1,193 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.CompoundExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionField;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.ast.UnaryExpression;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.UuidRepresentation;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.intuit.graphql.filter.visitors.QueryDocuments.BSON_DOCUMENTS;
+
+/**
+ * This class is responsible for traversing the expression tree and
+ * generating a mongo query {@link BsonDocument} from it, with typed
+ * values (e.g. {@link BsonInt64}, {@link BsonDateTime} for instants),
+ * to be used with the MongoDB driver without Spring Data. The query
+ * has the shape of the {@link MongoCriteriaExpressionVisitor} one:
+ * flat logical operators, conditions on the same field merged and
+ * escaped regular expressions.
+ */
+public class BsonExpressionVisitor implements ExpressionVisitor<BsonDocument> {
+
+    private final FieldMapping fieldMapping;
+
+    public BsonExpressionVisitor(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public BsonExpressionVisitor(FieldMapping fieldMapping) {
+        this.fieldMapping = fieldMapping;
+    }
+
+    /**
+     * Returns the query document from the expression tree.
+     * @param expression
+     * @return
+     */
+    @Override
+    public BsonDocument expression(Expression expression) {
+        return expression == null ? null : expression.accept(this, null);
+    }
+
+    @Override
+    public BsonDocument visitCompoundExpression(CompoundExpression compoundExpression, BsonDocument data) {
+        final Operator operator = compoundExpression.getOperator();
+        if (!Operator.AND.equals(operator) && !Operator.OR.equals(operator)) {
+            return null;
+        }
+
+        return BSON_DOCUMENTS.compound(compoundExpression, expression -> expression.accept(this, null));
+    }
+
+    @Override
+    public BsonDocument visitBinaryExpression(BinaryExpression binaryExpression, BsonDocument data) {
+        final String field = binaryExpression.getLeftOperand().infix();
+        final ResolvedField resolvedField = fieldMapping.resolve(field);
+        final Object value = fieldMapping.transformValue(
+                resolvedField, field, ((ExpressionValue<?>) binaryExpression.getRightOperand()).value());
+        return new BsonDocument(resolvedField.getName(), getCondition(binaryExpression.getOperator(), value));
+    }
+
+    @Override
+    public BsonDocument visitUnaryExpression(UnaryExpression unaryExpression, BsonDocument data) {
+        return BSON_DOCUMENTS.negation(unaryExpression.getLeftOperand().accept(this, null));
+    }
+
+    @Override
+    public BsonDocument visitExpressionField(ExpressionField field, BsonDocument data) {
+        /* ExpressionField has been taken care in the Binary expression visitor. */
+        return null;
+    }
+
+    @Override
+    public BsonDocument visitExpressionValue(ExpressionValue<? extends Comparable> value, BsonDocument data) {
+        /* ExpressionValue has been taken care in the Binary expression visitor. */
+        return null;
+    }
+
+    private static BsonValue getCondition(Operator operator, Object value) {
+        if (Operator.EQUALS.equals(operator) || Operator.EQ.equals(operator)) {
+            return toBsonValue(value);
+        } else if (Operator.STARTS.equals(operator)) {
+            return new BsonRegularExpression("^" + MongoCriteriaExpressionVisitor.escapeRegex(value));
+        } else if (Operator.ENDS.equals(operator)) {
+            return new BsonRegularExpression(MongoCriteriaExpressionVisitor.escapeRegex(value) + "$");
+        } else if (Operator.CONTAINS.equals(operator)) {
+            return new BsonRegularExpression(MongoCriteriaExpressionVisitor.escapeRegex(value));
+        } else if (Operator.LT.equals(operator)) {
+            return new BsonDocument("$lt", toBsonValue(value));
+        } else if (Operator.LTE.equals(operator)) {
+            return new BsonDocument("$lte", toBsonValue(value));
+        } else if (Operator.GT.equals(operator)) {
+            return new BsonDocument("$gt", toBsonValue(value));
+        } else if (Operator.GTE.equals(operator)) {
+            return new BsonDocument("$gte", toBsonValue(value));
+        } else if (Operator.IN.equals(operator)) {
+            return new BsonDocument("$in", toBsonValue(value));
+        } else if (Operator.BETWEEN.equals(operator)) {
+            final List<?> bounds = (List<?>) value;
+            return new BsonDocument("$gte", toBsonValue(bounds.get(0))).append("$lte", toBsonValue(bounds.get(1)));
+        }
+        throw new UnsupportedOperationException("Unsupported operator: " + operator);
+    }
+
+    /**
+     * Returns the BSON value of a filter value, local
+     * dates and times taken at UTC.
+     * @param value
+     * @return
+     * @throws UnsupportedOperationException If the value has no BSON type.
+     */
+    public static BsonValue toBsonValue(Object value) {
+        if (value == null) {
+            return BsonNull.VALUE;
+        } else if (value instanceof BsonValue) {
+            return (BsonValue) value;
+        } else if (value instanceof String) {
+            return new BsonString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return new BsonInt32(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            return new BsonInt64((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return new BsonDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            return new BsonDecimal128(new Decimal128((BigDecimal) value));
+        } else if (value instanceof BigInteger) {
+            final BigInteger bigInteger = (BigInteger) value;
+            return bigInteger.bitLength() < Long.SIZE
+                    ? new BsonInt64(bigInteger.longValue())
+                    : new BsonDecimal128(new Decimal128(new BigDecimal(bigInteger)));
+        } else if (value instanceof Boolean) {
+            return BsonBoolean.valueOf((Boolean) value);
+        } else if (value instanceof Instant) {
+            return new BsonDateTime(((Instant) value).toEpochMilli());
+        } else if (value instanceof Date) {
+            return new BsonDateTime(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            return toBsonValue(((LocalDate) value).atStartOfDay(ZoneOffset.UTC).toInstant());
+        } else if (value instanceof LocalDateTime) {
+            return toBsonValue(((LocalDateTime) value).toInstant(ZoneOffset.UTC));
+        } else if (value instanceof OffsetDateTime) {
+            return toBsonValue(((OffsetDateTime) value).toInstant());
+        } else if (value instanceof UUID) {
+            return new BsonBinary((UUID) value, UuidRepresentation.STANDARD);
+        } else if (value instanceof ObjectId) {
+            return new BsonObjectId((ObjectId) value);
+        } else if (value instanceof Enum) {
+            return new BsonString(((Enum<?>) value).name());
+        } else if (value instanceof Collection) {
+            final BsonArray array = new BsonArray();
+            for (Object element : (Collection<?>) value) {
+                array.add(toBsonValue(element));
+            }
+            return array;
+        }
+        throw new UnsupportedOperationException("Unsupported BSON value type: " + value.getClass().getName());
+    }
+}
@@ -0,0 +1,69 @@
+package com.intuit.graphql.filter.visitors;
+
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JPA Specification compiled from a filter expression.
+ * Field names and values are resolved once, when the
+ * specification is built, so {@link #toPredicate} only
+ * creates the criteria objects. Instances are immutable
+ * and can be invoked concurrently and repeatedly, e.g.
+ * for a page and its count query.
+ *
+ * When parameterized, values are rendered as named
+ * parameters (see {@link #getParameters()}) keeping one
+ * query shape per filter shape, and must be bound on the
+ * query created from the criteria with {@link #bind(Query)}.
+ * @param <T>
+ */
+public final class CompiledSpecification<T> implements Specification<T> {
+
+    private final Specification<T> specification;
+    private final Map<String, Object> parameters;
+
+    CompiledSpecification(Specification<T> specification, Map<String, Object> parameters) {
+        this.specification = specification;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+
+    /**
+     * Returns the parameter values by name, in rendering
+     * order, empty unless the specification is parameterized.
+     * @return
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public boolean isParameterized() {
+        return !parameters.isEmpty();
+    }
+
+    /**
+     * Binds the parameter values on the query created
+     * from a criteria query using this specification.
+     * @param query
+     * @param <Q>
+     * @return The given query.
+     */
+    public <Q extends Query> Q bind(Q query) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            query.setParameter(parameter.getKey(), parameter.getValue());
+        }
+        return query;
+    }
+}
@@ -22,12 +22,11 @@ import com.intuit.graphql.filter.ast.ExpressionField;
 import com.intuit.graphql.filter.ast.ExpressionValue;
 import com.intuit.graphql.filter.ast.Operator;
 import com.intuit.graphql.filter.ast.UnaryExpression;
-import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
 import com.intuit.graphql.filter.client.FieldValueTransformer;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,9 +41,7 @@ public class ElasticsearchCriteriaExpressionVisitor implements ExpressionVisitor
 
     private static final String QUOTE_CHARACTER = "\"";
 
-    private final Map<String, String> fieldMap;
-    private final Deque<String> fieldStack;
-    private final FieldValueTransformer fieldValueTransformer;
+    private final FieldMapping fieldMapping;
 
     @FunctionalInterface
     public interface CriteriaStrategy {
@@ -79,9 +76,11 @@ public class ElasticsearchCriteriaExpressionVisitor implements ExpressionVisitor
     }
 
     public ElasticsearchCriteriaExpressionVisitor(final Map<String, String> fieldMap, final FieldValueTransformer fieldValueTransformer) {
-        this.fieldMap = fieldMap;
-        this.fieldStack = new ArrayDeque<>();
-        this.fieldValueTransformer = fieldValueTransformer;
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public ElasticsearchCriteriaExpressionVisitor(final FieldMapping fieldMapping) {
+        this.fieldMapping = fieldMapping;
     }
 
     /**
@@ -133,9 +132,10 @@ public class ElasticsearchCriteriaExpressionVisitor implements ExpressionVisitor
      */
     @Override
     public Criteria visitBinaryExpression(final BinaryExpression binaryExpression, final Criteria data) {
-        final String fieldName = mappedFieldName(binaryExpression.getLeftOperand().infix());
+        final ResolvedField resolvedField = fieldMapping.resolve(binaryExpression.getLeftOperand().infix());
+        final String fieldName = resolvedField.getName();
         ExpressionValue<? extends Comparable> operandValue = (ExpressionValue<? extends Comparable>) binaryExpression.getRightOperand();
-        operandValue = getTransformedValue(operandValue);
+        operandValue = getTransformedValue(resolvedField, binaryExpression.getLeftOperand().infix(), operandValue);
         return applyOperator(binaryExpression, data, fieldName, operandValue.value());
     }
 
@@ -186,28 +186,11 @@ public class ElasticsearchCriteriaExpressionVisitor implements ExpressionVisitor
         return null;
     }
 
-    private String mappedFieldName(final String fieldName) {
-        final String mappedFieldName;
-        if (fieldMap != null && fieldMap.get(fieldName) != null) {
-            mappedFieldName = fieldMap.get(fieldName);
-        } else if (fieldValueTransformer != null && fieldValueTransformer.transformField(fieldName) != null) {
-            mappedFieldName = fieldValueTransformer.transformField(fieldName);
-            fieldStack.push(fieldName); //pushing the field for lookup while visiting value.
-        } else {
-            mappedFieldName = fieldName;
-        }
-        return mappedFieldName;
-    }
-
-    private ExpressionValue getTransformedValue(final ExpressionValue<? extends Comparable> value) {
-        if (!fieldStack.isEmpty() && fieldValueTransformer != null) {
-            final String field = fieldStack.pop(); // pop the field associated with this value.
-            final FieldValuePair fieldValuePair = fieldValueTransformer.transformValue(field, value.value());
-            if (fieldValuePair != null && fieldValuePair.getValue() != null) {
-                return new ExpressionValue(fieldValuePair.getValue());
-            }
+    private ExpressionValue getTransformedValue(
+            final ResolvedField resolvedField, final String field, final ExpressionValue<? extends Comparable> value) {
+        if (resolvedField.isValueTransformed()) {
+            return new ExpressionValue(fieldMapping.transformValue(resolvedField, field, value.value()));
         }
         return value;
     }
-
 }
@@ -0,0 +1,320 @@
+package com.intuit.graphql.filter.visitors;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
+import co.elastic.clients.json.JsonData;
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.CompoundExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionField;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.ast.UnaryExpression;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This class is responsible for traversing the expression tree and
+ * generating a native Elasticsearch {@link Query} from it: a bool
+ * query holding every condition in filter context, so the clauses
+ * are not scored and can be cached by the nodes. Conditions map to
+ * term, terms, range, prefix and wildcard queries, OR to should
+ * clauses with minimum_should_match 1 and NOT to must_not clauses.
+ *
+ * Term level queries match the indexed terms: string fields are
+ * expected to be keyword fields, e.g. mapped to firstName.keyword.
+ */
+public class ElasticsearchQueryExpressionVisitor implements ExpressionVisitor<Query> {
+
+    private static final String WILDCARD_METACHARACTERS = "\\*?";
+    private static final String MINIMUM_SHOULD_MATCH = "1";
+
+    private final FieldMapping fieldMapping;
+    private ElasticsearchTermsStrategy termsStrategy = ElasticsearchTermsStrategy.defaults();
+
+    @FunctionalInterface
+    public interface QueryStrategy {
+        Query apply(String fieldName, Object value);
+    }
+
+    private static final Map<Operator, QueryStrategy> MAPPINGS = new HashMap<>();
+    private static final QueryStrategy DEFAULT_IN_STRATEGY = (fieldName, value) ->
+            ElasticsearchTermsStrategy.defaults().toQuery(fieldName, (List<?>) value);
+
+    static {
+        MAPPINGS.put(Operator.EQUALS, (fieldName, value) ->
+                QueryBuilders.term(term -> term.field(fieldName).value(toFieldValue(value))));
+        MAPPINGS.put(Operator.EQ, MAPPINGS.get(Operator.EQUALS));
+        MAPPINGS.put(Operator.IN, DEFAULT_IN_STRATEGY);
+        MAPPINGS.put(Operator.STARTS, (fieldName, value) ->
+                QueryBuilders.prefix(prefix -> prefix.field(fieldName).value(value.toString())));
+        MAPPINGS.put(Operator.ENDS, (fieldName, value) ->
+                QueryBuilders.wildcard(wildcard -> wildcard.field(fieldName).value("*" + escapeWildcard(value))));
+        MAPPINGS.put(Operator.CONTAINS, (fieldName, value) ->
+                QueryBuilders.wildcard(wildcard -> wildcard.field(fieldName).value("*" + escapeWildcard(value) + "*")));
+        MAPPINGS.put(Operator.LT, (fieldName, value) ->
+                QueryBuilders.range(range -> range.field(fieldName).lt(toJsonData(value))));
+        MAPPINGS.put(Operator.LTE, (fieldName, value) ->
+                QueryBuilders.range(range -> range.field(fieldName).lte(toJsonData(value))));
+        MAPPINGS.put(Operator.GT, (fieldName, value) ->
+                QueryBuilders.range(range -> range.field(fieldName).gt(toJsonData(value))));
+        MAPPINGS.put(Operator.GTE, (fieldName, value) ->
+                QueryBuilders.range(range -> range.field(fieldName).gte(toJsonData(value))));
+        MAPPINGS.put(Operator.BETWEEN, (fieldName, value) -> {
+            final List<?> values = (List<?>) value;
+            return QueryBuilders.range(range -> range.field(fieldName)
+                    .gte(toJsonData(values.get(0)))
+                    .lte(toJsonData(values.get(1))));
+        });
+    }
+
+    public static void addStrategy(Operator operator, QueryStrategy strategy) {
+        MAPPINGS.put(operator, strategy);
+    }
+
+    public static void removeStrategy(Operator operator) {
+        MAPPINGS.remove(operator);
+    }
+
+    public ElasticsearchQueryExpressionVisitor(final Map<String, String> fieldMap, final FieldValueTransformer fieldValueTransformer) {
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public ElasticsearchQueryExpressionVisitor(final FieldMapping fieldMapping) {
+        this.fieldMapping = fieldMapping;
+    }
+
+    /**
+     * Returns the bool filter query from the expression tree.
+     *
+     * @param expression The {@link Expression} instance.
+     * @return A query to be used with the Elasticsearch client.
+     */
+    @Override
+    public Query expression(final Expression expression) {
+        if (expression == null) {
+            return null;
+        }
+        final Query query = expression.accept(this, null);
+        return getClauses(query, BoolQuery::filter) != null
+                ? query
+                : QueryBuilders.bool(bool -> bool.filter(query));
+    }
+
+    /**
+     * Handles the processing of compound expression node.
+     *
+     * @param compoundExpression Contains compound expression.
+     * @param data               Buffer for storing processed data.
+     * @return Data of processed node.
+     */
+    @Override
+    public Query visitCompoundExpression(final CompoundExpression compoundExpression, final Query data) {
+        final Operator operator = compoundExpression.getOperator();
+        if (Operator.AND.equals(operator)) {
+            final List<Query> clauses = new ArrayList<>();
+            collectClauses(compoundExpression, operator, BoolQuery::filter, clauses);
+            return QueryBuilders.bool(bool -> bool.filter(clauses));
+        } else if (Operator.OR.equals(operator)) {
+            final List<Query> clauses = new ArrayList<>();
+            collectClauses(compoundExpression, operator, BoolQuery::should, clauses);
+            return QueryBuilders.bool(bool -> bool.should(clauses).minimumShouldMatch(MINIMUM_SHOULD_MATCH));
+        }
+        return null;
+    }
+
+    /**
+     * Handles the processing of binary expression node.
+     *
+     * @param binaryExpression Contains binary expression.
+     * @param data             Buffer for storing processed data.
+     * @return Data of processed node.
+     */
+    @Override
+    public Query visitBinaryExpression(final BinaryExpression binaryExpression, final Query data) {
+        final String field = binaryExpression.getLeftOperand().infix();
+        final ResolvedField resolvedField = fieldMapping.resolve(field);
+        final Object value = fieldMapping.transformValue(
+                resolvedField, field, ((ExpressionValue<?>) binaryExpression.getRightOperand()).value());
+        final QueryStrategy strategy = MAPPINGS.get(binaryExpression.getOperator());
+        if (strategy == null) {
+            throw new UnsupportedOperationException("Unsupported operator: " + binaryExpression.getOperator());
+        }
+        if (strategy == DEFAULT_IN_STRATEGY) {
+            // a replaced in strategy is honoured, the default one follows the configured terms strategy
+            return termsStrategy.toQuery(resolvedField.getName(), (List<?>) value);
+        }
+        return strategy.apply(resolvedField.getName(), value);
+    }
+
+    public ElasticsearchTermsStrategy getTermsStrategy() {
+        return termsStrategy;
+    }
+
+    /**
+     * Renders the in conditions by list size, as terms queries
+     * chunked to index.max_terms_count by default.
+     * @param termsStrategy
+     */
+    public void setTermsStrategy(ElasticsearchTermsStrategy termsStrategy) {
+        this.termsStrategy = termsStrategy;
+    }
+
+    /**
+     * Handles the processing of unary expression node.
+     *
+     * @param unaryExpression Contains unary expression.
+     * @param data            Buffer for storing processed data.
+     * @return Data of processed node.
+     */
+    @Override
+    public Query visitUnaryExpression(final UnaryExpression unaryExpression, final Query data) {
+        final Query operand = unaryExpression.getLeftOperand().accept(this, null);
+        // not (a or b) excludes both a and b
+        final List<Query> disjunction = getClauses(operand, BoolQuery::should);
+        return QueryBuilders.bool(bool -> bool.mustNot(
+                disjunction != null ? disjunction : Collections.singletonList(operand)));
+    }
+
+    /**
+     * Handles the processing of expression field node.
+     *
+     * @param field Contains expression field.
+     * @param data  Buffer for storing processed data.
+     * @return Data of processed node.
+     */
+    @Override
+    public Query visitExpressionField(final ExpressionField field, final Query data) {
+        /* ExpressionField has been taken care in the Binary expression visitor. */
+        return null;
+    }
+
+    /**
+     * Handles the processing of expression value node.
+     *
+     * @param value Contains expression value.
+     * @param data  Buffer for storing processed data.
+     * @return Data of processed node.
+     */
+    @Override
+    public Query visitExpressionValue(final ExpressionValue<? extends Comparable> value, final Query data) {
+        /* ExpressionValue has been taken care in the Binary expression visitor. */
+        return null;
+    }
+
+    /**
+     * Collects the clauses of a chain of the same logical
+     * operator, so that it renders as one flat bool query.
+     */
+    private void collectClauses(
+            final Expression expression,
+            final Operator operator,
+            final Function<BoolQuery, List<Query>> clauseKind,
+            final List<Query> clauses) {
+        if (expression instanceof CompoundExpression && operator.equals(((CompoundExpression) expression).getOperator())) {
+            collectClauses(((CompoundExpression) expression).getLeftOperand(), operator, clauseKind, clauses);
+            collectClauses(((CompoundExpression) expression).getRightOperand(), operator, clauseKind, clauses);
+            return;
+        }
+
+        final Query query = expression.accept(this, null);
+        final List<Query> nestedClauses = getClauses(query, clauseKind);
+        if (nestedClauses != null) {
+            clauses.addAll(nestedClauses);
+        } else {
+            clauses.add(query);
+        }
+    }
+
+    /* The clauses of a bool query holding only clauses of the given kind, null otherwise. */
+    private static List<Query> getClauses(
+            final Query query, final Function<BoolQuery, List<Query>> clauseKind) {
+        if (!query.isBool()) {
+            return null;
+        }
+        final BoolQuery bool = query.bool();
+        final List<Query> clauses = clauseKind.apply(bool);
+        final int clauseCount = bool.filter().size() + bool.must().size() + bool.mustNot().size() + bool.should().size();
+        return clauses.isEmpty() || clauses.size() != clauseCount || bool.boost() != null ? null : clauses;
+    }
+
+    /**
+     * Returns the value with the wildcard metacharacters
+     * escaped, to be matched literally.
+     * @param value
+     * @return
+     */
+    public static String escapeWildcard(Object value) {
+        final String text = String.valueOf(value);
+        final StringBuilder escaped = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (WILDCARD_METACHARACTERS.indexOf(character) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(character);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Returns the term of a filter value: numbers and booleans
+     * as such, dates in ISO-8601 and anything else as string.
+     * @param value
+     * @return
+     */
+    public static FieldValue toFieldValue(Object value) {
+        final Object jsonValue = toJsonValue(value);
+        if (jsonValue == null) {
+            return FieldValue.NULL;
+        } else if (jsonValue instanceof Long) {
+            return FieldValue.of((Long) jsonValue);
+        } else if (jsonValue instanceof Double) {
+            return FieldValue.of((Double) jsonValue);
+        } else if (jsonValue instanceof Boolean) {
+            return FieldValue.of((Boolean) jsonValue);
+        }
+        return FieldValue.of((String) jsonValue);
+    }
+
+    private static JsonData toJsonData(Object value) {
+        return JsonData.of(toJsonValue(value));
+    }
+
+    private static Object toJsonValue(Object value) {
+        if (value == null || value instanceof Boolean || value instanceof String) {
+            return value;
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        } else if (value instanceof BigInteger) {
+            return value.toString();
+        } else if (value instanceof Date) {
+            // java.sql.Date does not support toInstant
+            return Instant.ofEpochMilli(((Date) value).getTime()).toString();
+        } else if (value instanceof TemporalAccessor) {
+            return value.toString();
+        } else if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return value.toString();
+    }
+}
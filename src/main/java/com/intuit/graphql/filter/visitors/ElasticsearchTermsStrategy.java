@@ -0,0 +1,111 @@
+package com.intuit.graphql.filter.visitors;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermsLookup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rendering of the in conditions by list size: a terms query
+ * up to the chunk size, then either terms queries of at most
+ * the chunk size under a should clause or, above the lookup
+ * threshold, a terms lookup of the values in a document the
+ * caller has indexed. The chunk size defaults to the default
+ * index.max_terms_count of the indexes.
+ */
+public final class ElasticsearchTermsStrategy {
+
+    public static final int DEFAULT_MAX_TERMS_COUNT = 65536;
+
+    private static final String MINIMUM_SHOULD_MATCH = "1";
+
+    /**
+     * Provides the document holding the values of a large
+     * in condition, e.g. after indexing them under a key
+     * derived from the request.
+     */
+    @FunctionalInterface
+    public interface TermsLookupProvider {
+        TermsLookup lookup(String fieldName, List<?> values);
+    }
+
+    private final int chunkSize;
+    private final int lookupThreshold;
+    private final TermsLookupProvider lookupProvider;
+
+    private ElasticsearchTermsStrategy(int chunkSize, int lookupThreshold, TermsLookupProvider lookupProvider) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.lookupThreshold = lookupThreshold;
+        this.lookupProvider = lookupProvider;
+    }
+
+    /**
+     * Returns the strategy chunking the lists larger
+     * than the default index.max_terms_count.
+     * @return
+     */
+    public static ElasticsearchTermsStrategy defaults() {
+        return chunked(DEFAULT_MAX_TERMS_COUNT);
+    }
+
+    /**
+     * Returns the strategy chunking the lists larger
+     * than the given size.
+     * @param chunkSize
+     * @return
+     */
+    public static ElasticsearchTermsStrategy chunked(int chunkSize) {
+        return new ElasticsearchTermsStrategy(chunkSize, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Returns a copy of the strategy looking up the lists
+     * larger than the threshold in the provided documents.
+     * @param lookupThreshold
+     * @param lookupProvider
+     * @return
+     */
+    public ElasticsearchTermsStrategy withLookup(int lookupThreshold, TermsLookupProvider lookupProvider) {
+        return new ElasticsearchTermsStrategy(chunkSize, lookupThreshold, lookupProvider);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getLookupThreshold() {
+        return lookupThreshold;
+    }
+
+    /**
+     * Returns the query matching any of the values.
+     * @param fieldName
+     * @param values
+     *          The filter values.
+     * @return
+     */
+    public Query toQuery(String fieldName, List<?> values) {
+        if (lookupProvider != null && values.size() > lookupThreshold) {
+            final TermsLookup lookup = lookupProvider.lookup(fieldName, values);
+            return QueryBuilders.terms(terms -> terms.field(fieldName).terms(field -> field.lookup(lookup)));
+        }
+
+        final List<Query> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size() || from == 0; from += chunkSize) {
+            final List<FieldValue> chunk = new ArrayList<>();
+            for (Object value : values.subList(from, Math.min(from + chunkSize, values.size()))) {
+                chunk.add(ElasticsearchQueryExpressionVisitor.toFieldValue(value));
+            }
+            chunks.add(QueryBuilders.terms(terms -> terms.field(fieldName).terms(field -> field.value(chunk))));
+        }
+        return chunks.size() == 1
+                ? chunks.get(0)
+                : QueryBuilders.bool(bool -> bool.should(chunks).minimumShouldMatch(MINIMUM_SHOULD_MATCH));
+    }
+}
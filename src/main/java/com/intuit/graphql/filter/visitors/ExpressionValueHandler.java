@@ -3,9 +3,30 @@ package com.intuit.graphql.filter.visitors;
 import com.intuit.graphql.filter.ast.ExpressionValue;
 import com.intuit.graphql.filter.ast.Operator;
 
+import java.io.IOException;
+
 public interface ExpressionValueHandler {
     void handle(
             Operator operator,
             StringBuilder expressionBuilder,
             ExpressionValue<? extends Object> expressionValue);
-}
\ No newline at end of file
+
+    /**
+     * Writes the value to the given appendable. Handlers of
+     * potentially large values (e.g. IN lists) override this
+     * to write the value piece by piece instead of buffering it.
+     * @param operator
+     * @param appendable
+     * @param expressionValue
+     * @throws IOException
+     */
+    default void handle(
+            Operator operator,
+            Appendable appendable,
+            ExpressionValue<? extends Object> expressionValue) throws IOException {
+
+        final StringBuilder expressionBuilder = new StringBuilder();
+        handle(operator, expressionBuilder, expressionValue);
+        appendable.append(expressionBuilder);
+    }
+}
@@ -21,11 +21,10 @@ import com.intuit.graphql.filter.ast.Expression;
 import com.intuit.graphql.filter.ast.ExpressionField;
 import com.intuit.graphql.filter.ast.ExpressionValue;
 import com.intuit.graphql.filter.ast.UnaryExpression;
-import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
 import com.intuit.graphql.filter.client.FieldValueTransformer;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Map;
 
 /**
@@ -38,14 +37,14 @@ import java.util.Map;
  */
 public class InfixExpressionVisitor implements ExpressionVisitor<String> {
 
-    private Map<String, String> fieldMap;
-    private Deque<ExpressionField> fieldStack;
-    private FieldValueTransformer fieldValueTransformer;
+    private final FieldMapping fieldMapping;
 
     public InfixExpressionVisitor(Map<String,String> fieldMap, FieldValueTransformer fieldValueTransformer) {
-        this.fieldMap = fieldMap;
-        this.fieldStack = new ArrayDeque<>();
-        this.fieldValueTransformer = fieldValueTransformer;
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public InfixExpressionVisitor(FieldMapping fieldMapping) {
+        this.fieldMapping = fieldMapping;
     }
 
     /**
@@ -98,13 +97,14 @@ public class InfixExpressionVisitor implements ExpressionVisitor<String> {
      */
     @Override
     public String visitBinaryExpression(BinaryExpression binaryExpression, String data) {
+        final ResolvedField resolvedField = fieldMapping.resolve(binaryExpression.getLeftOperand().infix());
         StringBuilder expressionBuilder = new StringBuilder(data);
         expressionBuilder.append("(")
-                .append(binaryExpression.getLeftOperand().accept(this, ""))
+                .append(resolvedField.getName())
                 .append(" ")
                 .append(binaryExpression.getOperator().getKey())
                 .append(" ")
-                .append(binaryExpression.getRightOperand().accept(this, ""))
+                .append(getTransformedValue(resolvedField, binaryExpression).accept(this, ""))
                 .append(")");
         return expressionBuilder.toString();
 
@@ -145,14 +145,7 @@ public class InfixExpressionVisitor implements ExpressionVisitor<String> {
     @Override
     public String visitExpressionField(ExpressionField field, String data) {
         StringBuilder expressionBuilder = new StringBuilder(data);
-        if (fieldMap != null && fieldMap.get(field.infix()) != null) {
-            expressionBuilder.append(fieldMap.get(field.infix()));
-        } else if (fieldValueTransformer != null && fieldValueTransformer.transformField(field.infix()) != null) {
-            expressionBuilder.append(fieldValueTransformer.transformField(field.infix()));
-            fieldStack.push(field); //pushing the field for lookup while visiting value.
-        } else {
-            expressionBuilder.append(field.infix());
-        }
+        expressionBuilder.append(fieldMapping.resolveFieldName(field.infix()));
         return expressionBuilder.toString();
     }
 
@@ -168,16 +161,17 @@ public class InfixExpressionVisitor implements ExpressionVisitor<String> {
      */
     @Override
     public String visitExpressionValue(ExpressionValue<? extends Comparable> value, String data) {
-        if (!fieldStack.isEmpty() && fieldValueTransformer != null) {
-            ExpressionField field  = fieldStack.pop(); // pop the field associated with this value.
-            FieldValuePair fieldValuePair = fieldValueTransformer.transformValue(field.infix(),value.value());
-            if (fieldValuePair != null && fieldValuePair.getValue() != null) {
-                value = new ExpressionValue(fieldValuePair.getValue());
-            }
-        }
-
         StringBuilder expressionBuilder = new StringBuilder(data);
         expressionBuilder.append(value.value());
         return expressionBuilder.toString();
     }
+
+    private Expression getTransformedValue(ResolvedField resolvedField, BinaryExpression binaryExpression) {
+        if (resolvedField.isValueTransformed()) {
+            ExpressionValue value = (ExpressionValue) binaryExpression.getRightOperand();
+            return new ExpressionValue(fieldMapping.transformValue(
+                    resolvedField, binaryExpression.getLeftOperand().infix(), value.value()));
+        }
+        return binaryExpression.getRightOperand();
+    }
 }
@@ -0,0 +1,145 @@
+package com.intuit.graphql.filter.visitors;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A SQL WHERE clause with {@code ?} placeholders together
+ * with the typed values to bind on them. The SQL text only
+ * depends on the shape of the filter, not on its values, so
+ * it can be used as the key of a prepared statement cache.
+ * Instances are immutable and can bind any number of
+ * statements. Instants and dates are bound as their local
+ * date-time in the default time zone of the JVM, the zone
+ * the parser reads local filter values in.
+ */
+public class JdbcExpression {
+    private final String sql;
+    private final List<Object> parameters;
+
+    public JdbcExpression(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the values in placeholder order.
+     * @return
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Binds the values starting at the first parameter.
+     * @param statement
+     * @return
+     *          The index of the next parameter.
+     * @throws SQLException
+     */
+    public int bind(PreparedStatement statement) throws SQLException {
+        return bind(statement, 1);
+    }
+
+    /**
+     * Binds the values starting at the given parameter index,
+     * e.g. after the parameters of a preceding select list.
+     * @param statement
+     * @param startIndex
+     * @return
+     *          The index of the next parameter.
+     * @throws SQLException
+     */
+    public int bind(PreparedStatement statement, int startIndex) throws SQLException {
+        int index = startIndex;
+        for (Object parameter : parameters) {
+            bindValue(statement, index++, parameter);
+        }
+        return index;
+    }
+
+    private static void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value instanceof String) {
+            statement.setString(index, (String) value);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            statement.setLong(index, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            statement.setDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            statement.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            statement.setBigDecimal(index, new BigDecimal((BigInteger) value));
+        } else if (value instanceof Boolean) {
+            statement.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Instant || value instanceof Date) {
+            statement.setObject(index, toLocalDateTime(value));
+        } else if (value instanceof List) {
+            statement.setArray(index, createArray(statement, (List<?>) value));
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    private static Array createArray(PreparedStatement statement, List<?> values) throws SQLException {
+        final Object[] elements = new Object[values.size()];
+        String typeName = "VARCHAR";
+        for (int i = 0; i < elements.length; i++) {
+            final Object value = values.get(i);
+            if (value instanceof Instant || value instanceof Date) {
+                elements[i] = toLocalDateTime(value);
+            } else {
+                elements[i] = value;
+            }
+            if (i == 0) {
+                typeName = arrayTypeName(value);
+            }
+        }
+        return statement.getConnection().createArrayOf(typeName, elements);
+    }
+
+    private static String arrayTypeName(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return "INTEGER";
+        } else if (value instanceof Long) {
+            return "BIGINT";
+        } else if (value instanceof Double || value instanceof Float) {
+            return "DOUBLE PRECISION";
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return "NUMERIC";
+        } else if (value instanceof Boolean) {
+            return "BOOLEAN";
+        } else if (value instanceof Instant || value instanceof Date) {
+            return "TIMESTAMP";
+        }
+        return "VARCHAR";
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        final Instant instant;
+        if (value instanceof Timestamp) {
+            instant = ((Timestamp) value).toInstant();
+        } else if (value instanceof Date) {
+            // java.sql.Date does not support toInstant
+            instant = Instant.ofEpochMilli(((Date) value).getTime());
+        } else {
+            instant = (Instant) value;
+        }
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,49 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+import com.intuit.graphql.filter.visitors.ParameterizedSQLExpressionValueVisitor.BindMarkers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for traversing
+ * the expression tree and generating a JDBC
+ * expression, i.e. a SQL WHERE clause with
+ * placeholders and the values to bind on them.
+ */
+public class JdbcExpressionVisitor extends AbstractParameterizedExpressionVisitor<JdbcExpression> {
+
+    public JdbcExpressionVisitor(Map<String, String> fieldMap) {
+        this(fieldMap, null);
+    }
+
+    public JdbcExpressionVisitor(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    private JdbcExpressionVisitor(FieldMapping fieldMapping) {
+        super(fieldMapping, BindMarkers.QUESTION_MARK);
+    }
+
+    /**
+     * Returns a visitor resolving field names through the
+     * given, possibly shared, field mapping.
+     * @param fieldMapping
+     * @return
+     */
+    public static JdbcExpressionVisitor of(FieldMapping fieldMapping) {
+        return new JdbcExpressionVisitor(fieldMapping);
+    }
+
+    @Override
+    protected JdbcExpression createExpression(String sql, List<Object> parameters) {
+        return new JdbcExpression(sql, parameters);
+    }
+
+    @Override
+    protected String sql(JdbcExpression data) {
+        return data == null ? "" : data.getSql();
+    }
+}
@@ -0,0 +1,323 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.client.InvalidFilterException;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+
+import java.lang.reflect.AnnotatedElement;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Binding of the filter fields to the attributes of a JPA
+ * entity, computed once from the metamodel, typically at
+ * startup. Fields are the basic attributes of the entity
+ * and, as dotted paths, of its associated and embedded
+ * types. The binding converts the filter values to the
+ * Java type of their attribute and rejects unknown fields
+ * before any query is built.
+ * @param <T>
+ */
+public final class JpaEntityBinding<T> {
+
+    private final EntityType<T> entityType;
+    private final Map<String, BoundAttribute> attributes;
+
+    private JpaEntityBinding(EntityType<T> entityType) {
+        this.entityType = entityType;
+        final Map<String, BoundAttribute> boundAttributes = new LinkedHashMap<>();
+        collect(entityType, entityType.getJavaType(), "", new HashSet<>(), boundAttributes);
+        this.attributes = Collections.unmodifiableMap(boundAttributes);
+    }
+
+    public static <T> JpaEntityBinding<T> of(Metamodel metamodel, Class<T> entityClass) {
+        return of(metamodel.entity(entityClass));
+    }
+
+    public static <T> JpaEntityBinding<T> of(EntityType<T> entityType) {
+        return new JpaEntityBinding<>(entityType);
+    }
+
+    public EntityType<T> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Returns the filterable field names, dotted for
+     * the attributes of associated types.
+     * @return
+     */
+    public Set<String> getFieldNames() {
+        return attributes.keySet();
+    }
+
+    /**
+     * Returns the Java type of the attribute of the field,
+     * primitive types boxed.
+     * @param fieldName
+     * @return
+     * @throws InvalidFilterException If the field is unknown.
+     */
+    public Class<?> getJavaType(String fieldName) {
+        return getAttribute(fieldName).javaType;
+    }
+
+    /**
+     * Returns the fields whose column is neither an identifier,
+     * nor unique, nor the leading column of an index declared
+     * by the entity table. Filtering on them likely scans the
+     * table.
+     * @return
+     */
+    public List<String> getUnindexedFieldNames() {
+        final List<String> fieldNames = new ArrayList<>();
+        for (Map.Entry<String, BoundAttribute> attribute : attributes.entrySet()) {
+            if (!attribute.getValue().indexed) {
+                fieldNames.add(attribute.getKey());
+            }
+        }
+        Collections.sort(fieldNames);
+        return fieldNames;
+    }
+
+    /**
+     * Returns the value converted to the Java type of the
+     * field attribute, element wise for lists.
+     * @param fieldName
+     * @param operator
+     * @param value
+     * @return
+     * @throws InvalidFilterException If the field is unknown, if the value
+     *          cannot be converted or the operator does not apply to the field.
+     */
+    public Object bind(String fieldName, Operator operator, Object value) {
+        final Class<?> javaType = getJavaType(fieldName);
+        if ((Operator.CONTAINS.equals(operator) || Operator.STARTS.equals(operator) || Operator.ENDS.equals(operator))
+                && !String.class.equals(javaType)) {
+            throw new InvalidFilterException("Operator " + operator.getKey() + " requires a string field: " + fieldName);
+        }
+
+        if (value instanceof Collection) {
+            final List<Object> values = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                values.add(convert(fieldName, javaType, element));
+            }
+            return values;
+        }
+        return convert(fieldName, javaType, value);
+    }
+
+    private BoundAttribute getAttribute(String fieldName) {
+        final BoundAttribute attribute = attributes.get(fieldName);
+        if (attribute == null) {
+            throw new InvalidFilterException("Unknown filter field: " + fieldName);
+        }
+        return attribute;
+    }
+
+    private static void collect(
+            ManagedType<?> type,
+            Class<?> tableType,
+            String prefix,
+            Set<Class<?>> path,
+            Map<String, BoundAttribute> attributes) {
+
+        path.add(type.getJavaType());
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            final String fieldName = prefix + attribute.getName();
+            final Type<?> targetType = attribute instanceof PluralAttribute
+                    ? ((PluralAttribute<?, ?, ?>) attribute).getElementType()
+                    : ((SingularAttribute<?, ?>) attribute).getType();
+
+            if (targetType instanceof ManagedType) {
+                if (!path.contains(targetType.getJavaType())) {
+                    collect((ManagedType<?>) targetType,
+                            targetType instanceof EntityType ? targetType.getJavaType() : tableType,
+                            fieldName + ".", path, attributes);
+                }
+            } else if (!attribute.isCollection()) {
+                attributes.put(fieldName, new BoundAttribute(
+                        box(attribute.getJavaType()), isIndexed(attribute, tableType)));
+            }
+        }
+        path.remove(type.getJavaType());
+    }
+
+    private static boolean isIndexed(Attribute<?, ?> attribute, Class<?> tableType) {
+        String columnName = attribute.getName();
+        if (attribute.getJavaMember() instanceof AnnotatedElement) {
+            final AnnotatedElement member = (AnnotatedElement) attribute.getJavaMember();
+            if (member.isAnnotationPresent(Id.class) || member.isAnnotationPresent(EmbeddedId.class)) {
+                return true;
+            }
+            final Column column = member.getAnnotation(Column.class);
+            if (column != null && column.unique()) {
+                return true;
+            }
+            if (column != null && !column.name().isEmpty()) {
+                columnName = column.name();
+            }
+        }
+
+        final Table table = tableType.getAnnotation(Table.class);
+        if (table != null) {
+            for (Index index : table.indexes()) {
+                final String leadingColumn = index.columnList().split(",")[0].trim().split("\\s+")[0];
+                if (normalize(leadingColumn).equals(normalize(columnName))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /* Column names compared regardless of the naming strategy, e.g. firstName and first_name. */
+    private static String normalize(String columnName) {
+        return columnName.replace("_", "").replace("\"", "").replace("`", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Object convert(String fieldName, Class<?> javaType, Object value) {
+        if (value == null || javaType.isInstance(value)) {
+            return value;
+        }
+
+        try {
+            final Object converted = convert(javaType, value);
+            if (converted != null) {
+                return converted;
+            }
+        } catch (RuntimeException e) {
+            /* Reported below as an invalid value. */
+        }
+        throw new InvalidFilterException("Invalid value for field " + fieldName + ": " + value);
+    }
+
+    private static Object convert(Class<?> javaType, Object value) {
+        if (String.class.equals(javaType)) {
+            return value.toString();
+        } else if (Number.class.isAssignableFrom(javaType)) {
+            return convertNumber(javaType, new BigDecimal(value.toString()));
+        } else if (Boolean.class.equals(javaType)) {
+            return "true".equalsIgnoreCase(value.toString()) || "false".equalsIgnoreCase(value.toString())
+                    ? Boolean.valueOf(value.toString())
+                    : null;
+        } else if (javaType.isEnum()) {
+            return Enum.valueOf((Class<Enum>) javaType, value.toString());
+        } else if (Character.class.equals(javaType)) {
+            return value.toString().length() == 1 ? value.toString().charAt(0) : null;
+        } else if (UUID.class.equals(javaType)) {
+            return UUID.fromString(value.toString());
+        } else if (LocalDate.class.equals(javaType) && value instanceof String) {
+            return LocalDate.parse((String) value);
+        }
+
+        final Instant instant = value instanceof Instant ? (Instant) value
+                // java.sql.Date does not support toInstant
+                : value instanceof Date ? Instant.ofEpochMilli(((Date) value).getTime())
+                : value instanceof String ? Instant.parse((String) value)
+                : null;
+        return instant == null ? null : convertInstant(javaType, instant);
+    }
+
+    private static Object convertNumber(Class<?> javaType, BigDecimal number) {
+        if (Integer.class.equals(javaType)) {
+            return number.intValueExact();
+        } else if (Long.class.equals(javaType)) {
+            return number.longValueExact();
+        } else if (Short.class.equals(javaType)) {
+            return number.shortValueExact();
+        } else if (Byte.class.equals(javaType)) {
+            return number.byteValueExact();
+        } else if (Double.class.equals(javaType)) {
+            return number.doubleValue();
+        } else if (Float.class.equals(javaType)) {
+            return number.floatValue();
+        } else if (BigInteger.class.equals(javaType)) {
+            return number.toBigIntegerExact();
+        } else if (BigDecimal.class.equals(javaType)) {
+            return number;
+        }
+        return null;
+    }
+
+    /* Local dates and times are in the default zone, the one the parser read them in. */
+    private static Object convertInstant(Class<?> javaType, Instant instant) {
+        if (Instant.class.equals(javaType)) {
+            return instant;
+        } else if (java.sql.Timestamp.class.equals(javaType)) {
+            return java.sql.Timestamp.from(instant);
+        } else if (java.sql.Date.class.equals(javaType)) {
+            return new java.sql.Date(instant.toEpochMilli());
+        } else if (Date.class.equals(javaType)) {
+            return Date.from(instant);
+        } else if (LocalDate.class.equals(javaType)) {
+            return LocalDate.ofInstant(instant, ZoneId.systemDefault());
+        } else if (LocalDateTime.class.equals(javaType)) {
+            return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        } else if (OffsetDateTime.class.equals(javaType)) {
+            return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
+        } else if (ZonedDateTime.class.equals(javaType)) {
+            return ZonedDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        return null;
+    }
+
+    private static Class<?> box(Class<?> javaType) {
+        if (!javaType.isPrimitive()) {
+            return javaType;
+        } else if (int.class.equals(javaType)) {
+            return Integer.class;
+        } else if (long.class.equals(javaType)) {
+            return Long.class;
+        } else if (boolean.class.equals(javaType)) {
+            return Boolean.class;
+        } else if (double.class.equals(javaType)) {
+            return Double.class;
+        } else if (float.class.equals(javaType)) {
+            return Float.class;
+        } else if (short.class.equals(javaType)) {
+            return Short.class;
+        } else if (byte.class.equals(javaType)) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+
+    private static final class BoundAttribute {
+        private final Class<?> javaType;
+        private final boolean indexed;
+
+        private BoundAttribute(Class<?> javaType, boolean indexed) {
+            this.javaType = javaType;
+            this.indexed = indexed;
+        }
+    }
+}
@@ -22,17 +22,24 @@ import com.intuit.graphql.filter.ast.UnaryExpression;
 import com.intuit.graphql.filter.ast.Expression;
 import com.intuit.graphql.filter.ast.ExpressionField;
 import com.intuit.graphql.filter.ast.ExpressionValue;
-import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
 import com.intuit.graphql.filter.client.FieldValueTransformer;
 import org.springframework.data.jpa.domain.Specification;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.PluralJoin;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import jakarta.persistence.criteria.Subquery;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -40,16 +47,20 @@ import java.util.Map;
  * This class is responsible for traversing
  * the expression tree and generating a compound
  * JPA Specification from it with correct precedence
- * order.
+ * order. Dotted field names, e.g. address.city, filter
+ * on the attributes of associated entities.
  *
  * @author sjaiswal
  * @author jeansossmeier
  */
 public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<Specification<T>>{
 
-    private Map<String, String> fieldMap;
-    private Deque<String> fieldStack;
-    private FieldValueTransformer fieldValueTransformer;
+    private FieldMapping fieldMapping = FieldMapping.identity();
+    private PrefixRangeRewriter prefixRangeRewriter;
+    private boolean parameterized = false;
+    private JpaEntityBinding<T> entityBinding;
+
+    private static final String PARAMETER_PREFIX = "filter";
 
     @FunctionalInterface
     public interface PredicateStrategy<T> {
@@ -63,6 +74,7 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
         mappings.put(Operator.ENDS, (root, cb, path, value) -> cb.like(path, "%" + value.value()));
         mappings.put(Operator.CONTAINS, (root, cb, path, value) -> cb.like(path, "%" + value.value() + "%"));
         mappings.put(Operator.EQUALS, (root, cb, path, value) -> cb.equal(path, value.value()));
+        mappings.put(Operator.EQ, (root, cb, path, value) -> cb.equal(path, value.value()));
         mappings.put(Operator.LT, (root, cb, path, value) -> cb.lessThan(path, (Comparable) value.value()));
         mappings.put(Operator.LTE, (root, cb, path, value) -> cb.lessThanOrEqualTo(path, (Comparable) value.value()));
         mappings.put(Operator.GT, (root, cb, path, value) -> cb.greaterThan(path, (Comparable) value.value()));
@@ -83,9 +95,12 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
     }
 
     public JpaSpecificationExpressionVisitor(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
-        this.fieldMap = fieldMap;
-        this.fieldStack = new ArrayDeque<>();
-        this.fieldValueTransformer = fieldValueTransformer;
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public JpaSpecificationExpressionVisitor(FieldMapping fieldMapping) {
+        this();
+        this.fieldMapping = fieldMapping;
     }
 
     /**
@@ -98,11 +113,24 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
     public Specification<T> expression(Expression expression) {
         Specification<T> specification = null;
         if (expression != null){
-            specification = expression.accept(this, null);
+            specification = compile(expression);
         }
         return specification;
     }
 
+    /**
+     * Returns the JPA Specification compiled from the
+     * expression tree, with field names and values
+     * resolved once.
+     * @param expression
+     * @return
+     */
+    public CompiledSpecification<T> compile(Expression expression) {
+        final Compilation compilation = new Compilation();
+        final Specification<T> specification = expression.accept(compilation, null);
+        return new CompiledSpecification<>(specification, compilation.parameters);
+    }
+
     /**
      * Handles the processing of compound
      * expression node.
@@ -115,20 +143,7 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
      */
     @Override
     public Specification<T> visitCompoundExpression(CompoundExpression compoundExpression, Specification<T> data) {
-        Specification<T> result = null;
-        /* Logical operations.*/
-        if (Operator.AND.equals(compoundExpression.getOperator())) {
-            Specification<T> left = compoundExpression.getLeftOperand().accept(this, null);
-            Specification<T> right = compoundExpression.getRightOperand().accept(this, null);
-            result = Specification.where(left).and(right);
-        } else if (Operator.OR.equals(compoundExpression.getOperator())) {
-            Specification<T> right;
-            Specification<T> left;
-            left = compoundExpression.getLeftOperand().accept(this, null);
-            right = compoundExpression.getRightOperand().accept(this, null);
-            result = Specification.where(left).or(right);
-        }
-        return result;
+        return compile(compoundExpression);
     }
 
     /**
@@ -143,13 +158,13 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
      */
     @Override
     public Specification<T> visitBinaryExpression(BinaryExpression binaryExpression, Specification<T> data) {
-        return (root, criteriaQuery, criteriaBuilder) -> {
-            ExpressionValue<? extends Comparable> operandValue = (ExpressionValue<? extends Comparable>)binaryExpression.getRightOperand();
-            String fieldName = mappedFieldName(binaryExpression.getLeftOperand().infix());
-            operandValue = getTransformedValue(operandValue);
-            Path path = root.get(fieldName);
-            return resolvePredicate(binaryExpression.getOperator(), root, criteriaBuilder, path, operandValue);
-        };
+        return compile(binaryExpression);
+    }
+
+    private boolean isPrefixRangeRewritable(Operator operator, String fieldName, ExpressionValue<?> value) {
+        return prefixRangeRewriter != null
+                && Operator.STARTS.equals(operator)
+                && prefixRangeRewriter.isRewritable(fieldName, value.value());
     }
 
     /**
@@ -164,8 +179,7 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
      */
     @Override
     public Specification<T> visitUnaryExpression(UnaryExpression unaryExpression, Specification<T> data) {
-        Specification<T> left = unaryExpression.getLeftOperand().accept(this, null);
-        return Specification.not(left);
+        return compile(unaryExpression);
     }
 
     /**
@@ -200,27 +214,348 @@ public class JpaSpecificationExpressionVisitor<T> implements ExpressionVisitor<S
         return null;
     }
 
-    private String mappedFieldName(String fieldName) {
-        StringBuilder expressionBuilder = new StringBuilder();
-        if (fieldMap != null && fieldMap.get(fieldName) != null) {
-            expressionBuilder.append(fieldMap.get(fieldName));
-        } else if (fieldValueTransformer != null && fieldValueTransformer.transformField(fieldName) != null) {
-            expressionBuilder.append(fieldValueTransformer.transformField(fieldName));
-            fieldStack.push(fieldName); //pushing the field for lookup while visiting value.
-        } else {
-            expressionBuilder.append(fieldName);
+    public PrefixRangeRewriter getPrefixRangeRewriter() {
+        return prefixRangeRewriter;
+    }
+
+    /**
+     * Enables the rewrite of prefix matches into range
+     * predicates, null disables it (the default).
+     * @param prefixRangeRewriter
+     */
+    public void setPrefixRangeRewriter(PrefixRangeRewriter prefixRangeRewriter) {
+        this.prefixRangeRewriter = prefixRangeRewriter;
+    }
+
+    public boolean isParameterized() {
+        return parameterized;
+    }
+
+    /**
+     * Renders values as named parameters instead of literals,
+     * so that the JPA provider sees one query per filter shape
+     * and its query plan cache hits. The values must then be
+     * bound with {@link CompiledSpecification#bind}, which rules
+     * out repository methods taking a Specification.
+     * @param parameterized
+     */
+    public void setParameterized(boolean parameterized) {
+        this.parameterized = parameterized;
+    }
+
+    public JpaEntityBinding<T> getEntityBinding() {
+        return entityBinding;
+    }
+
+    /**
+     * Binds the filter fields to the entity attributes: values are
+     * converted to the attribute types and unknown fields rejected
+     * when the specification is compiled, null disables it (the
+     * default).
+     * @param entityBinding
+     */
+    public void setEntityBinding(JpaEntityBinding<T> entityBinding) {
+        this.entityBinding = entityBinding;
+    }
+
+    /**
+     * Compiles the expression tree. Names and values are resolved
+     * here, the returned specifications only capture immutable
+     * state and build the predicates.
+     */
+    private final class Compilation implements ExpressionVisitor<Specification<T>> {
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+        /* Depth of NOT and OR nodes above the visited node. */
+        private int subqueryScope = 0;
+        /* True within the subtree of an EXISTS subquery, whose joins start from the correlated root. */
+        private boolean correlated = false;
+
+        @Override
+        public Specification<T> expression(Expression expression) {
+            return expression.accept(this, null);
+        }
+
+        @Override
+        public Specification<T> visitCompoundExpression(CompoundExpression compoundExpression, Specification<T> data) {
+            if (isSubquery(compoundExpression)) {
+                return existsSpecification(compoundExpression);
+            }
+            final boolean disjunction = Operator.OR.equals(compoundExpression.getOperator());
+            if (disjunction) {
+                subqueryScope++;
+            }
+            final Specification<T> left = compoundExpression.getLeftOperand().accept(this, null);
+            final Specification<T> right = compoundExpression.getRightOperand().accept(this, null);
+            if (disjunction) {
+                subqueryScope--;
+                return (root, query, cb) -> cb.or(left.toPredicate(root, query, cb), right.toPredicate(root, query, cb));
+            } else if (Operator.AND.equals(compoundExpression.getOperator())) {
+                return (root, query, cb) -> cb.and(left.toPredicate(root, query, cb), right.toPredicate(root, query, cb));
+            }
+            return null;
+        }
+
+        @Override
+        public Specification<T> visitBinaryExpression(BinaryExpression binaryExpression, Specification<T> data) {
+            if (isSubquery(binaryExpression)) {
+                return existsSpecification(binaryExpression);
+            }
+            final String field = binaryExpression.getLeftOperand().infix();
+            final ResolvedField resolvedField = fieldMapping.resolve(field);
+            final String fieldName = resolvedField.getName();
+            final Operator operator = binaryExpression.getOperator();
+            ExpressionValue<?> value = getTransformedValue(
+                    resolvedField, field, (ExpressionValue<? extends Comparable>) binaryExpression.getRightOperand());
+            if (entityBinding != null) {
+                value = new ExpressionValue(entityBinding.bind(fieldName, operator, value.value()));
+            }
+
+            final PredicateStrategy<T> strategy;
+            if (isPrefixRangeRewritable(operator, fieldName, value)) {
+                strategy = prefixRangeStrategy((String) value.value());
+            } else if (parameterized) {
+                strategy = parameterStrategy(operator, value.value());
+            } else {
+                strategy = mappings.get(operator);
+                if (strategy == null) {
+                    throw new UnsupportedOperationException("Unsupported operator: " + operator);
+                }
+            }
+            return leafSpecification(fieldName, strategy, value);
+        }
+
+        @Override
+        public Specification<T> visitUnaryExpression(UnaryExpression unaryExpression, Specification<T> data) {
+            if (isSubquery(unaryExpression)) {
+                return existsSpecification(unaryExpression);
+            }
+            subqueryScope++;
+            final Specification<T> left = unaryExpression.getLeftOperand().accept(this, null);
+            subqueryScope--;
+            return (root, query, cb) -> cb.not(left.toPredicate(root, query, cb));
+        }
+
+        @Override
+        public Specification<T> visitExpressionField(ExpressionField field, Specification<T> data) {
+            return null;
+        }
+
+        @Override
+        public Specification<T> visitExpressionValue(ExpressionValue<? extends Comparable> value, Specification<T> data) {
+            return null;
+        }
+
+        /**
+         * Returns the predicate on the given attribute path. Dotted
+         * paths are joined, through inner joins shared by all the
+         * predicates of the query, or of the EXISTS subquery they
+         * belong to (see {@link #existsSpecification}).
+         */
+        private Specification<T> leafSpecification(String fieldName, PredicateStrategy<T> strategy, ExpressionValue<?> value) {
+            final int separator = fieldName.lastIndexOf('.');
+            if (separator < 0) {
+                return (root, query, cb) -> strategy.buildPredicate(root, cb, root.get(fieldName), value);
+            }
+
+            final String[] associations = fieldName.substring(0, separator).split("\\.");
+            final String attribute = fieldName.substring(separator + 1);
+            return (root, query, cb) -> strategy.buildPredicate(
+                    root, cb, join(root, associations, query).get(attribute), value);
+        }
+
+        /**
+         * Returns true if the node is below NOT or OR and all its
+         * fields are on a common association, where a join would
+         * change the result: NOT must hold for every associated
+         * entity, and OR must keep the entities without any.
+         */
+        private boolean isSubquery(Expression expression) {
+            return subqueryScope > 0 && !correlated && commonAssociation(expression) != null;
+        }
+
+        /**
+         * Returns the EXISTS subquery of the given node, correlated
+         * to the root. The whole node, e.g. a nested filter, is one
+         * subquery sharing its joins, so that its predicates hold for
+         * the same associated entity.
+         */
+        private Specification<T> existsSpecification(Expression expression) {
+            correlated = true;
+            final Specification<T> specification;
+            try {
+                specification = expression.accept(this, null);
+            } finally {
+                correlated = false;
+            }
+            return (root, query, cb) -> {
+                final Subquery<Integer> subquery = query.subquery(Integer.class);
+                final Root<T> correlation = subquery.correlate(root);
+                subquery.select(cb.literal(1)).where(specification.toPredicate(correlation, null, cb));
+                return cb.exists(subquery);
+            };
+        }
+
+        /**
+         * Returns the association path leading all the fields of the
+         * given node, e.g. address for address.city and address.geo.lat,
+         * or null if there is none.
+         */
+        private String commonAssociation(Expression expression) {
+            if (expression instanceof BinaryExpression) {
+                final String fieldName = fieldMapping.resolve(
+                        ((BinaryExpression) expression).getLeftOperand().infix()).getName();
+                final int separator = fieldName.lastIndexOf('.');
+                return separator < 0 ? null : fieldName.substring(0, separator);
+            } else if (expression instanceof CompoundExpression) {
+                final String left = commonAssociation(((CompoundExpression) expression).getLeftOperand());
+                final String right = commonAssociation(((CompoundExpression) expression).getRightOperand());
+                if (left == null || right == null) {
+                    return null;
+                }
+                String common = left;
+                while (!right.equals(common) && !right.startsWith(common + ".")) {
+                    final int separator = common.lastIndexOf('.');
+                    if (separator < 0) {
+                        return null;
+                    }
+                    common = common.substring(0, separator);
+                }
+                return common;
+            } else if (expression instanceof UnaryExpression) {
+                return commonAssociation(((UnaryExpression) expression).getLeftOperand());
+            }
+            return null;
+        }
+
+        private PredicateStrategy<T> prefixRangeStrategy(String prefix) {
+            final String successor = PrefixRangeRewriter.successor(prefix);
+            final Operand lowerBound = operand(prefix);
+            final Operand upperBound = successor == null ? null : operand(successor);
+            return (root, cb, path, value) -> {
+                final Predicate predicate = cb.greaterThanOrEqualTo(path, lowerBound.<String>expression(cb));
+                return upperBound == null
+                        ? predicate
+                        : cb.and(predicate, cb.lessThan(path, upperBound.<String>expression(cb)));
+            };
+        }
+
+        private PredicateStrategy<T> parameterStrategy(Operator operator, Object value) {
+            if ((Operator.EQUALS.equals(operator) || Operator.EQ.equals(operator)) && value == null) {
+                /* a null parameter never compares equal */
+                return (root, cb, path, v) -> cb.isNull(path);
+            } else if (Operator.EQUALS.equals(operator) || Operator.EQ.equals(operator)) {
+                final Operand equal = operand(value);
+                return (root, cb, path, v) -> cb.equal(path, equal.expression(cb));
+            } else if (Operator.CONTAINS.equals(operator)) {
+                final Operand contains = operand("%" + value + "%");
+                return (root, cb, path, v) -> cb.like(path, contains.<String>expression(cb));
+            } else if (Operator.STARTS.equals(operator)) {
+                final Operand starts = operand(value + "%");
+                return (root, cb, path, v) -> cb.like(path, starts.<String>expression(cb));
+            } else if (Operator.ENDS.equals(operator)) {
+                final Operand ends = operand("%" + value);
+                return (root, cb, path, v) -> cb.like(path, ends.<String>expression(cb));
+            } else if (Operator.LT.equals(operator)) {
+                final Operand lt = operand(value);
+                return (root, cb, path, v) -> cb.lessThan(path, lt.<Comparable>expression(cb));
+            } else if (Operator.LTE.equals(operator)) {
+                final Operand lte = operand(value);
+                return (root, cb, path, v) -> cb.lessThanOrEqualTo(path, lte.<Comparable>expression(cb));
+            } else if (Operator.GT.equals(operator)) {
+                final Operand gt = operand(value);
+                return (root, cb, path, v) -> cb.greaterThan(path, gt.<Comparable>expression(cb));
+            } else if (Operator.GTE.equals(operator)) {
+                final Operand gte = operand(value);
+                return (root, cb, path, v) -> cb.greaterThanOrEqualTo(path, gte.<Comparable>expression(cb));
+            } else if (Operator.IN.equals(operator)) {
+                final Operand in = operand(value);
+                return (root, cb, path, v) -> path.in(in.<Collection>expression(cb));
+            } else if (Operator.BETWEEN.equals(operator)) {
+                final List<?> bounds = (List<?>) value;
+                final Operand from = operand(bounds.get(0));
+                final Operand to = operand(bounds.get(1));
+                return (root, cb, path, v) -> cb.between(path, from.<Comparable>expression(cb), to.<Comparable>expression(cb));
+            }
+            throw new UnsupportedOperationException("Unsupported operator: " + operator);
+        }
+
+        private Operand operand(Object value) {
+            if (!parameterized) {
+                return new Operand(null, value);
+            }
+            final String name = PARAMETER_PREFIX + parameters.size();
+            parameters.put(name, value);
+            return new Operand(name, value);
+        }
+    }
+
+    /**
+     * Returns the inner join of the given association path,
+     * reusing the joins already made from the given root.
+     * Joining a collection makes the query distinct, so that
+     * the root entities are not repeated.
+     * @param from
+     * @param associations
+     * @param query
+     *          The query made distinct, null to leave it as is.
+     * @return
+     */
+    private static From<?, ?> join(From<?, ?> from, String[] associations, CriteriaQuery<?> query) {
+        From<?, ?> current = from;
+        for (String association : associations) {
+            Join<?, ?> join = null;
+            for (Join<?, ?> existing : current.getJoins()) {
+                if (JoinType.INNER.equals(existing.getJoinType())
+                        && association.equals(existing.getAttribute().getName())) {
+                    join = existing;
+                    break;
+                }
+            }
+            if (join == null) {
+                join = current.join(association, JoinType.INNER);
+                if (query != null && join instanceof PluralJoin) {
+                    query.distinct(true);
+                }
+            }
+            current = join;
         }
-        return expressionBuilder.toString();
+        return current;
     }
 
-    private ExpressionValue getTransformedValue(ExpressionValue<? extends Comparable> value) {
-        if (!fieldStack.isEmpty() && fieldValueTransformer != null) {
-            String field  = fieldStack.pop(); // pop the field associated with this value.
-            FieldValuePair fieldValuePair = fieldValueTransformer.transformValue(field,value.value());
-            if (fieldValuePair != null && fieldValuePair.getValue() != null) {
-                value = new ExpressionValue(fieldValuePair.getValue());
+    /**
+     * A value rendered either as a literal or, when named,
+     * as a parameter of the value type.
+     */
+    private static final class Operand {
+        private final String name;
+        private final Object value;
+        private final Class<?> type;
+
+        private Operand(String name, Object value) {
+            this.name = name;
+            this.value = value;
+            if (value == null) {
+                this.type = Object.class;
+            } else {
+                this.type = value instanceof Collection ? Collection.class : value.getClass();
             }
         }
+
+        private <V> jakarta.persistence.criteria.Expression<V> expression(CriteriaBuilder criteriaBuilder) {
+            if (name != null) {
+                return criteriaBuilder.parameter((Class<V>) type, name);
+            }
+            return value == null
+                    ? criteriaBuilder.nullLiteral((Class<V>) type)
+                    : criteriaBuilder.literal((V) value);
+        }
+    }
+
+    private ExpressionValue getTransformedValue(
+            ResolvedField resolvedField, String field, ExpressionValue<? extends Comparable> value) {
+        if (resolvedField.isValueTransformed()) {
+            return new ExpressionValue(fieldMapping.transformValue(resolvedField, field, value.value()));
+        }
         return value;
     }
 }
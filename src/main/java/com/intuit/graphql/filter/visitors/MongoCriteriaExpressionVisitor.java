@@ -22,15 +22,30 @@ import com.intuit.graphql.filter.ast.ExpressionField;
 import com.intuit.graphql.filter.ast.ExpressionValue;
 import com.intuit.graphql.filter.ast.Operator;
 import com.intuit.graphql.filter.ast.UnaryExpression;
-import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
 import com.intuit.graphql.filter.client.FieldValueTransformer;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Collation;
 import org.springframework.data.mongodb.core.query.Criteria;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.intuit.graphql.filter.visitors.QueryDocuments.DOCUMENTS;
 
 /**
  * This class is responsible for traversing the expression tree and
@@ -41,13 +56,14 @@ import java.util.Map;
  */
 public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Criteria> {
 
-    private static final String ANY_CHARACTERS = ".*";
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final String CASE_INSENSITIVE_OPTIONS = "i";
     private static final String START_ANCHOR = "^";
     private static final String END_ANCHOR = "$";
 
-    private final Map<String, String> fieldMap;
-    private final Deque<String> fieldStack;
-    private final FieldValueTransformer fieldValueTransformer;
+    private final FieldMapping fieldMapping;
+    private PatternCache<Pattern> patternCache;
+    private Collation caseInsensitiveCollation;
 
     @FunctionalInterface
     public interface CriteriaStrategy {
@@ -55,16 +71,21 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
     }
 
     private static final Map<Operator, CriteriaStrategy> MAPPINGS = new HashMap<>();
+    private static final Map<Operator, Function<Object, String>> REGEX_RENDERERS = new HashMap<>();
+    private static final Map<Operator, CriteriaStrategy> DEFAULT_REGEX_MAPPINGS = new HashMap<>();
 
     static {
-        MAPPINGS.put(Operator.STARTS, (fieldName, value) ->
-                Criteria.where(fieldName).regex(START_ANCHOR + value.value() + ANY_CHARACTERS));
-
-        MAPPINGS.put(Operator.ENDS, (fieldName, value) ->
-                Criteria.where(fieldName).regex(ANY_CHARACTERS + value.value() + END_ANCHOR));
-
-        MAPPINGS.put(Operator.CONTAINS, (fieldName, value) ->
-                Criteria.where(fieldName).regex(ANY_CHARACTERS + value.value() + ANY_CHARACTERS));
+        // regexes match anywhere unless anchored, a trailing .* would only slow down prefix index scans
+        REGEX_RENDERERS.put(Operator.STARTS, value -> START_ANCHOR + escapeRegex(value));
+        REGEX_RENDERERS.put(Operator.ENDS, value -> escapeRegex(value) + END_ANCHOR);
+        REGEX_RENDERERS.put(Operator.CONTAINS, MongoCriteriaExpressionVisitor::escapeRegex);
+
+        for (Map.Entry<Operator, Function<Object, String>> renderer : REGEX_RENDERERS.entrySet()) {
+            final CriteriaStrategy regexStrategy = (fieldName, value) ->
+                    Criteria.where(fieldName).regex(renderer.getValue().apply(value.value()));
+            DEFAULT_REGEX_MAPPINGS.put(renderer.getKey(), regexStrategy);
+            MAPPINGS.put(renderer.getKey(), regexStrategy);
+        }
 
         MAPPINGS.put(Operator.EQUALS, (fieldName, value) ->
                 Criteria.where(fieldName).is(value.value()));
@@ -101,6 +122,25 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
         }).apply(fieldName, value);
     }
 
+    /**
+     * Returns the value with the regular expression
+     * metacharacters escaped, to be matched literally.
+     * @param value
+     * @return
+     */
+    public static String escapeRegex(Object value) {
+        final String text = String.valueOf(value);
+        final StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (REGEX_METACHARACTERS.indexOf(character) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(character);
+        }
+        return escaped.toString();
+    }
+
     public static void addCriteria(Operator operator, CriteriaStrategy function) {
         MAPPINGS.put(operator, function);
     }
@@ -110,9 +150,11 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
     }
 
     public MongoCriteriaExpressionVisitor(final Map<String, String> fieldMap, final FieldValueTransformer fieldValueTransformer) {
-        this.fieldMap = fieldMap;
-        this.fieldStack = new ArrayDeque<>();
-        this.fieldValueTransformer = fieldValueTransformer;
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public MongoCriteriaExpressionVisitor(final FieldMapping fieldMapping) {
+        this.fieldMapping = fieldMapping;
     }
 
     /**
@@ -130,6 +172,254 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
         return criteria;
     }
 
+    /**
+     * Returns the index-aware plan of the expression: the top level
+     * conditions are ordered as the keys of the index bounding the
+     * longest prefix, which is suggested as hint, and the conditions
+     * no index can bound are reported. The Mongo planner itself does
+     * not depend on the order of the conditions.
+     *
+     * @param expression The {@link Expression} instance.
+     * @param indexes    The indexes of the queried collection.
+     * @return The plan of the query.
+     */
+    public MongoQueryPlan plan(final Expression expression, final MongoIndexes indexes) {
+        if (expression == null) {
+            return new MongoQueryPlan(null, null, new ArrayList<>(), true);
+        }
+
+        final List<Expression> conjuncts = new ArrayList<>();
+        collectConjuncts(expression, conjuncts);
+        final Map<String, Set<Operator>> conditions = new HashMap<>();
+        for (Expression conjunct : conjuncts) {
+            if (conjunct instanceof BinaryExpression) {
+                conditions.computeIfAbsent(getFieldName((BinaryExpression) conjunct), fieldName -> new HashSet<>())
+                        .add(((BinaryExpression) conjunct).getOperator());
+            }
+        }
+
+        final IndexInfo index = indexes.getBestIndex(conditions);
+        Expression plannedExpression = expression;
+        if (index != null && conjuncts.size() > 1) {
+            final List<String> keys = new ArrayList<>(MongoIndexes.getKey(index).keySet());
+            conjuncts.sort(Comparator.comparingInt(conjunct -> {
+                final int position = conjunct instanceof BinaryExpression
+                        ? keys.indexOf(getFieldName((BinaryExpression) conjunct))
+                        : -1;
+                return position < 0 ? Integer.MAX_VALUE : position;
+            }));
+            plannedExpression = andOf(conjuncts);
+        }
+
+        final Set<String> scanFieldNames = new TreeSet<>();
+        collectScanFieldNames(expression, indexes, false, scanFieldNames);
+        return new MongoQueryPlan(expression(plannedExpression), index,
+                new ArrayList<>(scanFieldNames), !isBounded(expression, indexes));
+    }
+
+    /**
+     * Returns the aggregation pipeline filtering with the expression
+     * around the given $lookup and $unwind stages. The top level
+     * conditions on the collection fields are matched first, where
+     * indexes apply, followed by a $project of the fields the filter,
+     * the join stages and the selection need; the conditions on the
+     * joined or unwound paths are matched after the join stages.
+     *
+     * @param expression         The {@link Expression} instance, or null.
+     * @param joinStages         The $lookup and $unwind stages.
+     * @param selectedFieldNames The fields needed by the later stages and
+     *                           the result, empty to keep every field.
+     * @return The stages of the pipeline.
+     */
+    public List<AggregationOperation> getPipeline(
+            final Expression expression,
+            final List<? extends AggregationOperation> joinStages,
+            final Collection<String> selectedFieldNames) {
+        final Set<String> joinedPaths = new LinkedHashSet<>();
+        final Set<String> projectedFieldNames = new LinkedHashSet<>();
+        for (AggregationOperation joinStage : joinStages) {
+            for (Document stage : joinStage.toPipelineStages(Aggregation.DEFAULT_CONTEXT)) {
+                collectJoinFields(stage, joinedPaths, projectedFieldNames);
+            }
+        }
+
+        final List<Expression> conjuncts = new ArrayList<>();
+        if (expression != null) {
+            collectConjuncts(expression, conjuncts);
+        }
+        final List<Expression> earlyConjuncts = new ArrayList<>();
+        final List<Expression> lateConjuncts = new ArrayList<>();
+        for (Expression conjunct : conjuncts) {
+            final Set<String> fieldNames = new LinkedHashSet<>();
+            collectFieldNames(conjunct, fieldNames);
+            boolean joined = false;
+            for (String fieldName : fieldNames) {
+                if (isJoined(fieldName, joinedPaths)) {
+                    joined = true;
+                } else {
+                    projectedFieldNames.add(fieldName);
+                }
+            }
+            (joined ? lateConjuncts : earlyConjuncts).add(conjunct);
+        }
+
+        final List<AggregationOperation> stages = new ArrayList<>();
+        if (!earlyConjuncts.isEmpty()) {
+            stages.add(Aggregation.match(expression(andOf(earlyConjuncts))));
+        }
+        if (!selectedFieldNames.isEmpty()) {
+            for (String fieldName : selectedFieldNames) {
+                if (!isJoined(fieldName, joinedPaths)) {
+                    projectedFieldNames.add(fieldName);
+                }
+            }
+            final Document projection = new Document();
+            for (String fieldName : projectedFieldNames) {
+                // a path and one of its subpaths cannot both be projected
+                if (!hasParent(fieldName, projectedFieldNames)) {
+                    projection.put(fieldName, 1);
+                }
+            }
+            stages.add(context -> new Document("$project", projection));
+        }
+        stages.addAll(joinStages);
+        if (!lateConjuncts.isEmpty()) {
+            stages.add(Aggregation.match(expression(andOf(lateConjuncts))));
+        }
+        return stages;
+    }
+
+    /*
+     * The paths a $lookup or $unwind stage adds or replaces, and the collection fields it reads:
+     * the local field of a $lookup and the fields its let variables refer to, its pipeline only
+     * reading the joined collection and the variables.
+     */
+    private static void collectJoinFields(final Document stage, final Set<String> joinedPaths, final Set<String> fieldNames) {
+        if (stage.get("$lookup") instanceof Document) {
+            final Document lookup = (Document) stage.get("$lookup");
+            if (lookup.get("localField") instanceof String) {
+                addUnjoined(lookup.getString("localField"), joinedPaths, fieldNames);
+            }
+            if (lookup.get("let") instanceof Document) {
+                collectFieldPaths(lookup.get("let"), joinedPaths, fieldNames);
+            }
+            joinedPaths.add(lookup.getString("as"));
+        } else if (stage.get("$unwind") != null) {
+            final Object unwind = stage.get("$unwind");
+            final String path = unwind instanceof Document ? ((Document) unwind).getString("path") : String.valueOf(unwind);
+            final String fieldName = path.startsWith("$") ? path.substring(1) : path;
+            addUnjoined(fieldName, joinedPaths, fieldNames);
+            joinedPaths.add(fieldName);
+            if (unwind instanceof Document && ((Document) unwind).get("includeArrayIndex") instanceof String) {
+                joinedPaths.add(((Document) unwind).getString("includeArrayIndex"));
+            }
+        }
+    }
+
+    /* The field paths, e.g. $address.city, of an aggregation expression; $$ variables are not fields. */
+    private static void collectFieldPaths(final Object expression, final Set<String> joinedPaths, final Set<String> fieldNames) {
+        if (expression instanceof String) {
+            final String value = (String) expression;
+            if (value.startsWith("$") && !value.startsWith("$$")) {
+                addUnjoined(value.substring(1), joinedPaths, fieldNames);
+            }
+        } else if (expression instanceof Map) {
+            for (Object value : ((Map<?, ?>) expression).values()) {
+                collectFieldPaths(value, joinedPaths, fieldNames);
+            }
+        } else if (expression instanceof Collection) {
+            for (Object value : (Collection<?>) expression) {
+                collectFieldPaths(value, joinedPaths, fieldNames);
+            }
+        }
+    }
+
+    private static void addUnjoined(final String fieldName, final Set<String> joinedPaths, final Set<String> fieldNames) {
+        if (!isJoined(fieldName, joinedPaths)) {
+            fieldNames.add(fieldName);
+        }
+    }
+
+    private static boolean isJoined(final String fieldName, final Set<String> joinedPaths) {
+        for (String joinedPath : joinedPaths) {
+            if (fieldName.equals(joinedPath) || fieldName.startsWith(joinedPath + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasParent(final String fieldName, final Set<String> fieldNames) {
+        for (String parent : fieldNames) {
+            if (fieldName.startsWith(parent + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void collectFieldNames(final Expression expression, final Set<String> fieldNames) {
+        if (expression instanceof BinaryExpression) {
+            fieldNames.add(getFieldName((BinaryExpression) expression));
+        } else if (expression instanceof CompoundExpression) {
+            collectFieldNames(((CompoundExpression) expression).getLeftOperand(), fieldNames);
+            collectFieldNames(((CompoundExpression) expression).getRightOperand(), fieldNames);
+        } else if (expression instanceof UnaryExpression) {
+            collectFieldNames(((UnaryExpression) expression).getLeftOperand(), fieldNames);
+        }
+    }
+
+    private static Expression andOf(final List<Expression> conjuncts) {
+        Expression conjunction = conjuncts.get(0);
+        for (int i = 1; i < conjuncts.size(); i++) {
+            conjunction = new CompoundExpression(conjunction, Operator.AND, conjuncts.get(i));
+        }
+        return conjunction;
+    }
+
+    private static void collectConjuncts(final Expression expression, final List<Expression> conjuncts) {
+        if (expression instanceof CompoundExpression && Operator.AND.equals(((CompoundExpression) expression).getOperator())) {
+            collectConjuncts(((CompoundExpression) expression).getLeftOperand(), conjuncts);
+            collectConjuncts(((CompoundExpression) expression).getRightOperand(), conjuncts);
+        } else {
+            conjuncts.add(expression);
+        }
+    }
+
+    /* A conjunction is bounded by any of its conditions, a disjunction by all of them. */
+    private boolean isBounded(final Expression expression, final MongoIndexes indexes) {
+        if (expression instanceof BinaryExpression) {
+            final BinaryExpression binaryExpression = (BinaryExpression) expression;
+            return indexes.isBounding(getFieldName(binaryExpression), binaryExpression.getOperator());
+        } else if (expression instanceof CompoundExpression) {
+            final CompoundExpression compoundExpression = (CompoundExpression) expression;
+            final boolean left = isBounded(compoundExpression.getLeftOperand(), indexes);
+            final boolean right = isBounded(compoundExpression.getRightOperand(), indexes);
+            return Operator.AND.equals(compoundExpression.getOperator()) ? left || right : left && right;
+        }
+        return false;
+    }
+
+    private void collectScanFieldNames(
+            final Expression expression, final MongoIndexes indexes, final boolean negated, final Set<String> fieldNames) {
+        if (expression instanceof BinaryExpression) {
+            final BinaryExpression binaryExpression = (BinaryExpression) expression;
+            final String fieldName = getFieldName(binaryExpression);
+            if (negated || !indexes.isIndexed(fieldName) || !MongoIndexes.isIndexable(binaryExpression.getOperator())) {
+                fieldNames.add(fieldName);
+            }
+        } else if (expression instanceof CompoundExpression) {
+            collectScanFieldNames(((CompoundExpression) expression).getLeftOperand(), indexes, negated, fieldNames);
+            collectScanFieldNames(((CompoundExpression) expression).getRightOperand(), indexes, negated, fieldNames);
+        } else if (expression instanceof UnaryExpression) {
+            collectScanFieldNames(((UnaryExpression) expression).getLeftOperand(), indexes, true, fieldNames);
+        }
+    }
+
+    private String getFieldName(final BinaryExpression binaryExpression) {
+        return fieldMapping.resolve(binaryExpression.getLeftOperand().infix()).getName();
+    }
+
     /**
      * Handles the processing of compound expression node.
      *
@@ -139,18 +429,13 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
      */
     @Override
     public Criteria visitCompoundExpression(final CompoundExpression compoundExpression, final Criteria data) {
-        Criteria result = null;
-        Operator operator = compoundExpression.getOperator();
-        if (Operator.AND.equals(operator)) {
-            Criteria left = compoundExpression.getLeftOperand().accept(this, null);
-            Criteria right = compoundExpression.getRightOperand().accept(this, null);
-            result = new Criteria().andOperator(left, right);
-        } else if (Operator.OR.equals(operator)) {
-            Criteria right = compoundExpression.getRightOperand().accept(this, null);
-            Criteria left = compoundExpression.getLeftOperand().accept(this, null);
-            result = new Criteria().orOperator(left, right);
+        final Operator operator = compoundExpression.getOperator();
+        if (!Operator.AND.equals(operator) && !Operator.OR.equals(operator)) {
+            return null;
         }
-        return result;
+
+        return new DocumentCriteria(DOCUMENTS.compound(
+                compoundExpression, expression -> expression.<Criteria>accept(this, null).getCriteriaObject()));
     }
 
     /**
@@ -162,11 +447,98 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
      */
     @Override
     public Criteria visitBinaryExpression(final BinaryExpression binaryExpression, final Criteria data) {
-        final String fieldName = mappedFieldName(binaryExpression.getLeftOperand().infix());
+        final ResolvedField resolvedField = fieldMapping.resolve(binaryExpression.getLeftOperand().infix());
+        final String fieldName = resolvedField.getName();
         ExpressionValue<? extends Comparable> operandValue = (ExpressionValue<? extends Comparable>) binaryExpression.getRightOperand();
-        operandValue = getTransformedValue(operandValue);
+        operandValue = getTransformedValue(resolvedField, binaryExpression.getLeftOperand().infix(), operandValue);
+        if (caseInsensitiveCollation != null && isDefaultRegex(binaryExpression.getOperator())) {
+            return getCaseInsensitiveCriteria(binaryExpression.getOperator(), fieldName, operandValue.value());
+        }
+        if (isCachedRegex(binaryExpression.getOperator())) {
+            return Criteria.where(fieldName).regex(getCachedPattern(binaryExpression.getOperator(), operandValue));
+        }
         return getCriteria(binaryExpression.getOperator(), fieldName, operandValue);
     }
+
+    private boolean isCachedRegex(final Operator operator) {
+        // only the default regex strategies are served from the cache, replaced ones are honoured
+        return patternCache != null && isDefaultRegex(operator);
+    }
+
+    private static boolean isDefaultRegex(final Operator operator) {
+        return DEFAULT_REGEX_MAPPINGS.containsKey(operator)
+                && DEFAULT_REGEX_MAPPINGS.get(operator) == MAPPINGS.get(operator);
+    }
+
+    /**
+     * Returns the case-insensitive criteria of a string operator.
+     * A prefix becomes a range, compared under the collation and
+     * served by an index with the same collation, unless its code
+     * point successor leaves the letters or digits, where the order
+     * of the collation may differ. Regexes ignore collations, so the
+     * other matches use the i option.
+     * The range holds the accent variants of the prefix too, e.g.
+     * Sáu for Sau, which only the primary strength equates: below
+     * it, the range is narrowed by the i regex of the prefix.
+     */
+    private Criteria getCaseInsensitiveCriteria(final Operator operator, final String fieldName, final Object value) {
+        final String regex = REGEX_RENDERERS.get(operator).apply(value);
+        if (Operator.STARTS.equals(operator) && value instanceof String && !((String) value).isEmpty()) {
+            final String prefix = (String) value;
+            final String successor = PrefixRangeRewriter.successor(prefix);
+            if (successor != null && isSameCharacterClass(prefix, successor)) {
+                final Criteria range = Criteria.where(fieldName).gte(prefix).lt(successor);
+                return isPrimaryStrength(caseInsensitiveCollation) ? range : range.regex(regex, CASE_INSENSITIVE_OPTIONS);
+            }
+        }
+        return Criteria.where(fieldName).regex(regex, CASE_INSENSITIVE_OPTIONS);
+    }
+
+    private static boolean isPrimaryStrength(final Collation collation) {
+        return Integer.valueOf(1).equals(collation.toDocument().get("strength"));
+    }
+
+    private static boolean isSameCharacterClass(final String prefix, final String successor) {
+        final int last = prefix.codePointBefore(prefix.length());
+        final int next = successor.codePointBefore(successor.length());
+        return Character.isLetter(last) ? Character.isLetter(next) : Character.isDigit(last) && Character.isDigit(next);
+    }
+
+    private Pattern getCachedPattern(final Operator operator, final ExpressionValue<? extends Comparable> value) {
+        return patternCache.get(operator, value.value(),
+                regexValue -> Pattern.compile(REGEX_RENDERERS.get(operator).apply(regexValue)));
+    }
+
+    public PatternCache<Pattern> getPatternCache() {
+        return patternCache;
+    }
+
+    /**
+     * Caches the compiled regular expressions of the contains,
+     * starts and ends criteria, null (the default) disables caching.
+     * @param patternCache
+     */
+    public void setPatternCache(PatternCache<Pattern> patternCache) {
+        this.patternCache = patternCache;
+    }
+
+    public Collation getCaseInsensitiveCollation() {
+        return caseInsensitiveCollation;
+    }
+
+    /**
+     * Matches the strings case-insensitively through the given
+     * collation, e.g. Collation.of("en").strength(ComparisonLevel.secondary()),
+     * instead of regexes: equals and starts can then use an index
+     * created with the same collation. The queries and aggregations
+     * of {@link com.intuit.graphql.filter.client.FilterExpression}
+     * carry the collation, queries built from the criteria alone must
+     * set it. Null (the default) matches case-sensitively.
+     * @param caseInsensitiveCollation
+     */
+    public void setCaseInsensitiveCollation(Collation caseInsensitiveCollation) {
+        this.caseInsensitiveCollation = caseInsensitiveCollation;
+    }
     /**
      * Handles the processing of unary expression node.
      *
@@ -176,8 +548,8 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
      */
     @Override
     public Criteria visitUnaryExpression(final UnaryExpression unaryExpression, final Criteria data) {
-        final Criteria left = unaryExpression.getLeftOperand().accept(this, null);
-        return new Criteria().norOperator(left);
+        return new DocumentCriteria(DOCUMENTS.negation(
+                unaryExpression.getLeftOperand().<Criteria>accept(this, null).getCriteriaObject()));
     }
 
     /**
@@ -206,28 +578,40 @@ public class MongoCriteriaExpressionVisitor<T> implements ExpressionVisitor<Crit
         return null;
     }
 
-    private String mappedFieldName(final String fieldName) {
-        String mappedFieldName;
-        if (fieldMap != null && fieldMap.get(fieldName) != null) {
-            mappedFieldName = fieldMap.get(fieldName);
-        } else if (fieldValueTransformer != null && fieldValueTransformer.transformField(fieldName) != null) {
-            mappedFieldName = fieldValueTransformer.transformField(fieldName);
-            fieldStack.push(fieldName); //pushing the field for lookup while visiting value.
-        } else {
-            mappedFieldName = fieldName;
+    /**
+     * Criteria rendering a prebuilt document, which can
+     * still be chained with further criteria.
+     */
+    private static final class DocumentCriteria extends Criteria {
+        private final Document document;
+
+        private DocumentCriteria(final Document document) {
+            super(new ArrayList<>(), null);
+            this.document = document;
+        }
+
+        @Override
+        protected Document getSingleCriteriaObject() {
+            return new Document(document);
+        }
+
+        /* Criteria compares keys and operators, which are all empty here. */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof DocumentCriteria && document.equals(((DocumentCriteria) other).document);
+        }
+
+        @Override
+        public int hashCode() {
+            return document.hashCode();
         }
-        return mappedFieldName;
     }
 
-    private ExpressionValue getTransformedValue(final ExpressionValue<? extends Comparable> value) {
-        if (!fieldStack.isEmpty() && fieldValueTransformer != null) {
-            final String field = fieldStack.pop(); // pop the field associated with this value.
-            final FieldValuePair fieldValuePair = fieldValueTransformer.transformValue(field, value.value());
-            if (fieldValuePair != null && fieldValuePair.getValue() != null) {
-                return new ExpressionValue(fieldValuePair.getValue());
-            }
+    private ExpressionValue getTransformedValue(
+            final ResolvedField resolvedField, final String field, final ExpressionValue<? extends Comparable> value) {
+        if (resolvedField.isValueTransformed()) {
+            return new ExpressionValue(fieldMapping.transformValue(resolvedField, field, value.value()));
         }
         return value;
     }
-
 }
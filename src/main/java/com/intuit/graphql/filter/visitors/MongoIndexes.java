@@ -0,0 +1,202 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.Operator;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index definitions of a Mongo collection, used to plan the
+ * filter queries (see {@link MongoCriteriaExpressionVisitor#plan}).
+ * The definitions are either configured or read once from the
+ * collection (listIndexes): the instance is a snapshot, meant
+ * to be held per collection and rebuilt when indexes change.
+ *
+ * Text, geo, wildcard, hidden and partial indexes are ignored,
+ * hashed ones only serve equality.
+ */
+public final class MongoIndexes {
+
+    private static final List<Operator> EQUALITY_OPERATORS = Arrays.asList(Operator.EQ, Operator.EQUALS, Operator.IN);
+    private static final List<Operator> RANGE_OPERATORS = Arrays.asList(
+            Operator.LT, Operator.LTE, Operator.GT, Operator.GTE, Operator.BETWEEN, Operator.STARTS);
+
+    private final List<IndexInfo> indexes;
+
+    private MongoIndexes(List<IndexInfo> indexes) {
+        final List<IndexInfo> plannable = new ArrayList<>();
+        for (IndexInfo index : indexes) {
+            if (isPlannable(index)) {
+                plannable.add(index);
+            }
+        }
+        this.indexes = Collections.unmodifiableList(plannable);
+    }
+
+    public static MongoIndexes of(List<IndexInfo> indexes) {
+        return new MongoIndexes(indexes);
+    }
+
+    /**
+     * Returns the indexes currently defined on the collection.
+     * @param indexOperations
+     * @return
+     */
+    public static MongoIndexes of(IndexOperations indexOperations) {
+        return of(indexOperations.getIndexInfo());
+    }
+
+    /**
+     * Returns the indexes of the given key documents,
+     * e.g. {lastName: 1, firstName: 1}.
+     * @param keys
+     * @return
+     */
+    public static MongoIndexes of(Document... keys) {
+        final List<IndexInfo> indexes = new ArrayList<>();
+        for (Document key : keys) {
+            final StringBuilder name = new StringBuilder();
+            final Document weights = new Document();
+            for (Map.Entry<String, Object> field : key.entrySet()) {
+                name.append(name.length() == 0 ? "" : "_").append(field.getKey()).append('_').append(field.getValue());
+                if ("text".equals(field.getValue())) {
+                    weights.put(field.getKey(), 1);
+                }
+            }
+            final Document definition = new Document("key", key).append("name", name.toString());
+            if (!weights.isEmpty()) {
+                // as listed by the server, text indexes describe their fields by weight
+                definition.append("weights", weights);
+            }
+            indexes.add(IndexInfo.indexInfoOf(definition));
+        }
+        return of(indexes);
+    }
+
+    public List<IndexInfo> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * Returns whether the condition on the field can bound
+     * an index scan, i.e. the field leads an index and the
+     * operator is an equality or a range (an anchored prefix).
+     * @param fieldName
+     * @param operator
+     * @return
+     */
+    public boolean isBounding(String fieldName, Operator operator) {
+        for (IndexInfo index : indexes) {
+            if (isUsable(index.getIndexFields().get(0), fieldName, operator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether an index can serve the operator,
+     * i.e. it is an equality or a range.
+     * @param operator
+     * @return
+     */
+    public static boolean isIndexable(Operator operator) {
+        return EQUALITY_OPERATORS.contains(operator) || RANGE_OPERATORS.contains(operator);
+    }
+
+    /**
+     * Returns whether the field is a key of any index.
+     * @param fieldName
+     * @return
+     */
+    public boolean isIndexed(String fieldName) {
+        for (IndexInfo index : indexes) {
+            for (IndexField field : index.getIndexFields()) {
+                if (field.getKey().equals(fieldName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index bounding the longest prefix of its keys
+     * by the given conjunction of conditions: equalities extend
+     * the prefix, a range ends it. Ties go to the index with the
+     * fewest keys. Null if no index leads with a condition.
+     * @param conditions
+     *          Operators of the conditions by field name.
+     * @return
+     */
+    public IndexInfo getBestIndex(Map<String, Set<Operator>> conditions) {
+        IndexInfo bestIndex = null;
+        int bestScore = 0;
+        for (IndexInfo index : indexes) {
+            final int score = score(index, conditions);
+            if (score > bestScore || (score == bestScore && score > 0
+                    && index.getIndexFields().size() < bestIndex.getIndexFields().size())) {
+                bestIndex = index;
+                bestScore = score;
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Returns the key document of the index, to be used as hint.
+     * @param index
+     * @return
+     */
+    public static Document getKey(IndexInfo index) {
+        final Document key = new Document();
+        for (IndexField field : index.getIndexFields()) {
+            key.put(field.getKey(), field.isHashed() ? "hashed"
+                    : Sort.Direction.DESC.equals(field.getDirection()) ? -1 : 1);
+        }
+        return key;
+    }
+
+    private static int score(IndexInfo index, Map<String, Set<Operator>> conditions) {
+        int score = 0;
+        for (IndexField field : index.getIndexFields()) {
+            final Set<Operator> operators = conditions.getOrDefault(field.getKey(), Collections.emptySet());
+            if (!Collections.disjoint(operators, EQUALITY_OPERATORS)) {
+                score += 2;
+            } else {
+                if (!field.isHashed() && !Collections.disjoint(operators, RANGE_OPERATORS)) {
+                    score += 1;
+                }
+                break;
+            }
+        }
+        return score;
+    }
+
+    private static boolean isUsable(IndexField field, String fieldName, Operator operator) {
+        return field.getKey().equals(fieldName)
+                && (EQUALITY_OPERATORS.contains(operator) || !field.isHashed() && RANGE_OPERATORS.contains(operator));
+    }
+
+    private static boolean isPlannable(IndexInfo index) {
+        if (index.getIndexFields().isEmpty() || index.isHidden() || index.isWildcard()
+                || index.getPartialFilterExpression() != null) {
+            return false;
+        }
+        for (IndexField field : index.getIndexFields()) {
+            if (field.isText() || field.isGeo()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
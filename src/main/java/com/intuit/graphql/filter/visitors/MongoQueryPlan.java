@@ -0,0 +1,82 @@
+package com.intuit.graphql.filter.visitors;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index-aware plan of a Mongo filter: the criteria with the
+ * top level conditions in the key order of the chosen index,
+ * the index to hint and the risk of a collection scan, so
+ * that expensive filters can be rejected before they reach
+ * the cluster.
+ */
+public final class MongoQueryPlan {
+
+    private final Criteria criteria;
+    private final IndexInfo index;
+    private final List<String> scanFieldNames;
+    private final boolean collectionScan;
+
+    MongoQueryPlan(Criteria criteria, IndexInfo index, List<String> scanFieldNames, boolean collectionScan) {
+        this.criteria = criteria;
+        this.index = index;
+        this.scanFieldNames = Collections.unmodifiableList(scanFieldNames);
+        this.collectionScan = collectionScan;
+    }
+
+    public Criteria getCriteria() {
+        return criteria;
+    }
+
+    /**
+     * Returns the index bounding the top level conjunction,
+     * null if there is none.
+     * @return
+     */
+    public IndexInfo getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the key document of the index to hint, null
+     * if there is none.
+     * @return
+     */
+    public Document getHint() {
+        return index == null ? null : MongoIndexes.getKey(index);
+    }
+
+    /**
+     * Returns the fields whose conditions no index can bound:
+     * the field is in no index, or the condition is a negation
+     * or an unanchored regex (contains, ends).
+     * @return
+     */
+    public List<String> getScanFieldNames() {
+        return scanFieldNames;
+    }
+
+    /**
+     * Returns whether the filter can only run as a collection
+     * scan, i.e. no branch of it is bounded by an index.
+     * @return
+     */
+    public boolean isCollectionScan() {
+        return collectionScan;
+    }
+
+    /**
+     * Attaches the hint, if any, to the query.
+     * @param query
+     * @return
+     */
+    public Query applyHint(Query query) {
+        final Document hint = getHint();
+        return hint == null ? query : query.withHint(hint);
+    }
+}
@@ -0,0 +1,167 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.Operator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * SQL value visitor rendering every value as a bind marker
+ * ({@code ?} or {@code $1} depending on the driver) and
+ * collecting the typed values, in marker order, to be
+ * bound on a prepared statement.
+ * Values are kept as they come from the expression tree,
+ * no literal quoting or escaping is applied.
+ */
+public class ParameterizedSQLExpressionValueVisitor extends SQLExpressionValueVisitor {
+    /**
+     * Bind marker syntax of the target driver.
+     */
+    public enum BindMarkers {
+        /** Anonymous markers, {@code ?}, used by JDBC and the MySQL R2DBC driver. */
+        QUESTION_MARK,
+        /** Indexed markers, {@code $1}, used by the PostgreSQL and H2 R2DBC drivers. */
+        DOLLAR_INDEXED,
+        /** Indexed markers, {@code @P0}, used by the SQL Server R2DBC driver. */
+        AT_INDEXED;
+
+        /**
+         * Returns the marker of the parameter at the given
+         * zero based index.
+         * @param index
+         * @return
+         */
+        public String marker(int index) {
+            switch (this) {
+                case DOLLAR_INDEXED:
+                    return "$" + (index + 1);
+                case AT_INDEXED:
+                    return "@P" + index;
+                default:
+                    return "?";
+            }
+        }
+    }
+
+    /**
+     * How the values of an IN list are bound.
+     */
+    public enum InListBinding {
+        /** One placeholder per value, {@code col IN (?, ?, ?)}. */
+        EXPAND,
+        /** A single array placeholder, {@code col = ANY(?)}, whatever the list size. */
+        ARRAY
+    }
+
+    private final List<Object> parameters;
+    private final InListBinding inListBinding;
+    private final BindMarkers bindMarkers;
+
+    public ParameterizedSQLExpressionValueVisitor(InListBinding inListBinding) {
+        this(inListBinding, BindMarkers.QUESTION_MARK);
+    }
+
+    public ParameterizedSQLExpressionValueVisitor(InListBinding inListBinding, BindMarkers bindMarkers) {
+        super(new HashMap<>());
+        this.parameters = new ArrayList<>();
+        this.inListBinding = inListBinding;
+        this.bindMarkers = bindMarkers;
+
+        getExpressionValueHandlers().put(Operator.CONTAINS, new ContainsParameterHandler());
+        getExpressionValueHandlers().put(Operator.STARTS, new StartsParameterHandler());
+        getExpressionValueHandlers().put(Operator.ENDS, new EndsParameterHandler());
+        getExpressionValueHandlers().put(Operator.BETWEEN, new BetweenHandler());
+        getExpressionValueHandlers().put(Operator.IN,
+                inListBinding == InListBinding.ARRAY ? new InArrayParameterHandler() : new InHandler());
+        getExpressionValueHandlers().put(Operator.JSON_CONTAINS, new JsonParameterHandler());
+    }
+
+    /**
+     * Returns the collected values in placeholder order.
+     * @return
+     */
+    public List<Object> getParameters() {
+        return Collections.unmodifiableList(parameters);
+    }
+
+    public InListBinding getInListBinding() {
+        return inListBinding;
+    }
+
+    public BindMarkers getBindMarkers() {
+        return bindMarkers;
+    }
+
+    @Override
+    public boolean isBindingValues() {
+        return true;
+    }
+
+    @Override
+    protected String resolveValue(Object value) {
+        parameters.add(value);
+        return bindMarkers.marker(parameters.size() - 1);
+    }
+
+    public class ContainsParameterHandler implements ExpressionValueHandler {
+        @Override
+        public void handle(
+                Operator operator,
+                StringBuilder expressionBuilder,
+                ExpressionValue<? extends Object> expressionValue) {
+
+            final String value = expressionValue.infix();
+            expressionBuilder.append(resolveValue(value.contains("%") ? value : "%" + value + "%"));
+        }
+    }
+
+    public class StartsParameterHandler implements ExpressionValueHandler {
+        @Override
+        public void handle(
+                Operator operator,
+                StringBuilder expressionBuilder,
+                ExpressionValue<? extends Object> expressionValue) {
+
+            expressionBuilder.append(resolveValue(expressionValue.infix() + "%"));
+        }
+    }
+
+    public class EndsParameterHandler implements ExpressionValueHandler {
+        @Override
+        public void handle(
+                Operator operator,
+                StringBuilder expressionBuilder,
+                ExpressionValue<? extends Object> expressionValue) {
+
+            expressionBuilder.append(resolveValue("%" + expressionValue.infix()));
+        }
+    }
+
+    public class InArrayParameterHandler implements ExpressionValueHandler {
+        @Override
+        public void handle(
+                Operator operator,
+                StringBuilder expressionBuilder,
+                ExpressionValue<? extends Object> expressionValue) {
+
+            expressionBuilder.append("ANY(").append(resolveValue(expressionValue.value())).append(")");
+        }
+    }
+
+    /**
+     * Binds the document as a parameter cast to jsonb.
+     */
+    public class JsonParameterHandler implements ExpressionValueHandler {
+        @Override
+        public void handle(
+                Operator operator,
+                StringBuilder expressionBuilder,
+                ExpressionValue<? extends Object> expressionValue) {
+
+            expressionBuilder.append("CAST(").append(resolveValue(expressionValue.value())).append(" AS jsonb)");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.Operator;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache of patterns rendered from a
+ * filter value, e.g. compiled regular expressions, keyed
+ * by operator and value. Repeated
+ * values, typical for autocomplete traffic, are rendered
+ * once. When full, the oldest entries are evicted first.
+ * A cache can be shared by any number of visitors.
+ * @param <V>
+ */
+public class PatternCache<V> {
+    private final int maximumSize;
+    private final Map<Key, V> patterns;
+    private final Queue<Key> insertionOrder;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    public PatternCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.patterns = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * Returns the cached pattern of the operator and value,
+     * rendering and caching it first if needed.
+     * @param operator
+     * @param value
+     * @param renderer
+     *          Renders the pattern of the value.
+     * @return
+     */
+    public V get(Operator operator, Object value, Function<Object, V> renderer) {
+        final Key key = new Key(operator, value);
+        final V cached = patterns.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        final V rendered = renderer.apply(value);
+        if (patterns.putIfAbsent(key, rendered) == null) {
+            insertionOrder.add(key);
+            evictOverflow();
+        }
+        return rendered;
+    }
+
+    private void evictOverflow() {
+        while (patterns.size() > maximumSize) {
+            final Key eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            if (patterns.remove(eldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        patterns.clear();
+        insertionOrder.clear();
+    }
+
+    private static final class Key {
+        private final Operator operator;
+        private final Object value;
+
+        private Key(Operator operator, Object value) {
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return operator == key.operator && Objects.equals(value, key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(operator) + Objects.hashCode(value);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.intuit.graphql.filter.visitors;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Rewrites prefix matches ({@code starts}) into half-open range
+ * predicates, e.g. {@code col LIKE 'abc%'} becomes
+ * {@code col >= 'abc' AND col < 'abd'}, which a B-tree index can
+ * serve with a range scan whatever the LIKE rules of the column
+ * collation are.
+ *
+ * The rewrite is only equivalent to the LIKE form for columns that
+ * order strings by code point (binary or "C" collations). Columns
+ * with a linguistic collation must be opted out, either by listing
+ * the binary collated columns with {@link #forFields(String...)} or
+ * by excluding the others with {@link #excluding(String...)}.
+ * Field names are the target (mapped) column names.
+ */
+public class PrefixRangeRewriter {
+    private static final String LIKE_MANY = "%";
+    private static final String LIKE_ONE = "_";
+
+    private final Predicate<String> fieldFilter;
+
+    private PrefixRangeRewriter(Predicate<String> fieldFilter) {
+        this.fieldFilter = fieldFilter;
+    }
+
+    /**
+     * Rewrites prefix matches on every field.
+     * @return
+     */
+    public static PrefixRangeRewriter forAllFields() {
+        return new PrefixRangeRewriter(fieldName -> true);
+    }
+
+    /**
+     * Rewrites prefix matches on the given fields only.
+     * @param fieldNames
+     * @return
+     */
+    public static PrefixRangeRewriter forFields(String... fieldNames) {
+        final Set<String> included = new HashSet<>(Arrays.asList(fieldNames));
+        return new PrefixRangeRewriter(included::contains);
+    }
+
+    /**
+     * Returns a rewriter which additionally leaves
+     * the given fields untouched.
+     * @param fieldNames
+     * @return
+     */
+    public PrefixRangeRewriter excluding(String... fieldNames) {
+        final Set<String> excluded = new HashSet<>(Arrays.asList(fieldNames));
+        return new PrefixRangeRewriter(fieldFilter.and(fieldName -> !excluded.contains(fieldName)));
+    }
+
+    /**
+     * Returns true if a prefix match of the given
+     * value on the given field can be rewritten. Values
+     * carrying LIKE wildcards are never rewritten as the
+     * range form would match them literally.
+     * @param fieldName
+     * @param value
+     * @return
+     */
+    public boolean isRewritable(String fieldName, Object value) {
+        if (!(value instanceof String)) {
+            return false;
+        }
+
+        final String prefix = (String) value;
+        if (prefix.isEmpty() || prefix.contains(LIKE_MANY) || prefix.contains(LIKE_ONE)) {
+            return false;
+        }
+
+        return fieldFilter.test(fieldName);
+    }
+
+    /**
+     * Returns the smallest string in code point order
+     * which is greater than every string starting with
+     * the given prefix, or null when no such string
+     * exists (the prefix only consists of U+10FFFF).
+     * @param prefix
+     * @return
+     */
+    public static String successor(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            final int codePoint = prefix.codePointBefore(end);
+            final int start = end - Character.charCount(codePoint);
+            final int next = nextCodePoint(codePoint);
+            if (next != -1) {
+                return new StringBuilder(start + 2)
+                        .append(prefix, 0, start)
+                        .appendCodePoint(next)
+                        .toString();
+            }
+            end = start;
+        }
+        return null;
+    }
+
+    private static int nextCodePoint(int codePoint) {
+        if (codePoint >= Character.MAX_CODE_POINT) {
+            return -1;
+        }
+
+        final int next = codePoint + 1;
+        if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+            return Character.MAX_SURROGATE + 1;
+        }
+        return next;
+    }
+}
@@ -0,0 +1,222 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.CompoundExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.Operator;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds the logical operators of Mongo query documents, shared by
+ * the Spring Data ({@link Document}) and driver ({@link BsonDocument})
+ * visitors: flat $and and $or arrays, conditions on the same field
+ * merged and negations as $nor.
+ * @param <D> Document type.
+ * @param <V> Value type of the document.
+ */
+abstract class QueryDocuments<D extends Map<String, V>, V> {
+    static final String AND_OPERATOR = "$and";
+    static final String OR_OPERATOR = "$or";
+    static final String NOR_OPERATOR = "$nor";
+
+    static final QueryDocuments<Document, Object> DOCUMENTS = new QueryDocuments<Document, Object>() {
+        @Override
+        protected Document newDocument() {
+            return new Document();
+        }
+
+        @Override
+        protected Document asDocument(Object value) {
+            return value instanceof Document ? (Document) value : null;
+        }
+
+        @Override
+        protected List<?> asArray(Object value) {
+            return value instanceof List ? (List<?>) value : null;
+        }
+
+        @Override
+        protected Object toValue(Document document) {
+            return document;
+        }
+
+        @Override
+        protected Object toArray(List<Document> documents) {
+            return documents;
+        }
+    };
+
+    static final QueryDocuments<BsonDocument, BsonValue> BSON_DOCUMENTS = new QueryDocuments<BsonDocument, BsonValue>() {
+        @Override
+        protected BsonDocument newDocument() {
+            return new BsonDocument();
+        }
+
+        @Override
+        protected BsonDocument asDocument(Object value) {
+            return value instanceof BsonDocument ? (BsonDocument) value : null;
+        }
+
+        @Override
+        protected List<?> asArray(Object value) {
+            return value instanceof BsonArray ? ((BsonArray) value).getValues() : null;
+        }
+
+        @Override
+        protected BsonValue toValue(BsonDocument document) {
+            return document;
+        }
+
+        @Override
+        protected BsonValue toArray(List<BsonDocument> documents) {
+            return new BsonArray(documents);
+        }
+    };
+
+    protected abstract D newDocument();
+
+    /* The value as a document, null if it is not one. */
+    protected abstract D asDocument(Object value);
+
+    /* The elements of an array value, null if it is not one. */
+    protected abstract List<?> asArray(Object value);
+
+    protected abstract V toValue(D document);
+
+    protected abstract V toArray(List<D> documents);
+
+    /**
+     * Returns the document of a compound expression: the conjunction
+     * or the disjunction of its operands, given the document of each.
+     */
+    D compound(CompoundExpression compoundExpression, Function<Expression, D> visitor) {
+        final Operator operator = compoundExpression.getOperator();
+        final List<D> operands = new ArrayList<>();
+        collectOperands(compoundExpression, operator, visitor, operands);
+        return Operator.AND.equals(operator) ? conjunction(operands) : document(OR_OPERATOR, toArray(operands));
+    }
+
+    /**
+     * Returns the negation of the operand, i.e. the $nor of
+     * its disjuncts.
+     */
+    D negation(D operand) {
+        final List<D> disjunction = getLogicalOperands(operand, OR_OPERATOR);
+        return document(NOR_OPERATOR, toArray(disjunction != null ? disjunction : Collections.singletonList(operand)));
+    }
+
+    /**
+     * Collects the operands of a chain of the same logical
+     * operator, so that it renders as one flat array.
+     */
+    private void collectOperands(
+            Expression expression, Operator operator, Function<Expression, D> visitor, List<D> operands) {
+        if (expression instanceof CompoundExpression && operator.equals(((CompoundExpression) expression).getOperator())) {
+            collectOperands(((CompoundExpression) expression).getLeftOperand(), operator, visitor, operands);
+            collectOperands(((CompoundExpression) expression).getRightOperand(), operator, visitor, operands);
+            return;
+        }
+
+        final D document = visitor.apply(expression);
+        final List<D> nestedOperands = getLogicalOperands(
+                document, Operator.AND.equals(operator) ? AND_OPERATOR : OR_OPERATOR);
+        if (nestedOperands != null) {
+            operands.addAll(nestedOperands);
+        } else {
+            operands.add(document);
+        }
+    }
+
+    /**
+     * Returns the conjunction of the operands as a single document,
+     * merging the conditions on the same field, e.g. {age: {$gte: 1}}
+     * and {age: {$lte: 9}} into {age: {$gte: 1, $lte: 9}}. Conditions
+     * that cannot be merged are kept in an $and array.
+     */
+    private D conjunction(List<D> operands) {
+        final D conjunction = newDocument();
+        final List<D> unmerged = new ArrayList<>();
+        for (D operand : operands) {
+            for (Map.Entry<String, V> condition : operand.entrySet()) {
+                final String fieldName = condition.getKey();
+                if (!conjunction.containsKey(fieldName)) {
+                    conjunction.put(fieldName, condition.getValue());
+                } else if (isMergeable(conjunction.get(fieldName), condition.getValue())) {
+                    final D merged = newDocument();
+                    merged.putAll(asDocument(conjunction.get(fieldName)));
+                    merged.putAll(asDocument(condition.getValue()));
+                    conjunction.put(fieldName, toValue(merged));
+                } else {
+                    unmerged.add(document(fieldName, condition.getValue()));
+                }
+            }
+        }
+
+        if (!unmerged.isEmpty()) {
+            final List<D> conditions = new ArrayList<>();
+            final List<D> existing = getDocuments(conjunction.get(AND_OPERATOR));
+            if (existing != null) {
+                conditions.addAll(existing);
+            }
+            conditions.addAll(unmerged);
+            conjunction.put(AND_OPERATOR, toArray(conditions));
+        }
+        return conjunction;
+    }
+
+    /* Two operator documents, e.g. {$gte: 1} and {$lte: 9}, on distinct operators. */
+    private boolean isMergeable(V existing, V value) {
+        return isOperatorDocument(existing)
+                && isOperatorDocument(value)
+                && Collections.disjoint(asDocument(existing).keySet(), asDocument(value).keySet());
+    }
+
+    private boolean isOperatorDocument(V value) {
+        final D document = asDocument(value);
+        if (document == null || document.isEmpty()) {
+            return false;
+        }
+        for (String key : document.keySet()) {
+            if (!key.startsWith("$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* The operands of a document holding only the given logical operator, null otherwise. */
+    List<D> getLogicalOperands(D document, String logicalOperator) {
+        return document.size() == 1 ? getDocuments(document.get(logicalOperator)) : null;
+    }
+
+    /* The elements of an array of documents, null if the value is not one. */
+    private List<D> getDocuments(V value) {
+        final List<?> elements = asArray(value);
+        if (elements == null) {
+            return null;
+        }
+        final List<D> documents = new ArrayList<>();
+        for (Object element : elements) {
+            final D document = asDocument(element);
+            if (document == null) {
+                return null;
+            }
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private D document(String key, V value) {
+        final D document = newDocument();
+        document.put(key, value);
+        return document;
+    }
+}
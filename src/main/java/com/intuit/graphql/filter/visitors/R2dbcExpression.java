@@ -0,0 +1,91 @@
+package com.intuit.graphql.filter.visitors;
+
+import io.r2dbc.spi.Statement;
+
+import java.lang.reflect.Array;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A SQL WHERE clause with driver specific bind markers
+ * together with the typed values to bind on an R2DBC
+ * {@link Statement}. Binding only sets values on the
+ * statement, it never blocks. Instances are immutable
+ * and can bind any number of statements. Instants and
+ * dates are bound as their local date-time in the default
+ * time zone of the JVM, the zone the parser reads local
+ * filter values in.
+ */
+public class R2dbcExpression {
+    private final String sql;
+    private final List<Object> parameters;
+
+    public R2dbcExpression(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the values in bind marker order.
+     * @return
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Binds the values starting at the first parameter.
+     * @param statement
+     * @return
+     */
+    public Statement bind(Statement statement) {
+        return bind(statement, 0);
+    }
+
+    /**
+     * Binds the values starting at the given zero based
+     * parameter index.
+     * @param statement
+     * @param startIndex
+     * @return
+     */
+    public Statement bind(Statement statement, int startIndex) {
+        int index = startIndex;
+        for (Object parameter : parameters) {
+            statement.bind(index++, toR2dbcValue(parameter));
+        }
+        return statement;
+    }
+
+    private static Object toR2dbcValue(Object value) {
+        if (value instanceof Instant) {
+            return LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault());
+        } else if (value instanceof Date) {
+            // java.sql.Date does not support toInstant
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((Date) value).getTime()), ZoneId.systemDefault());
+        } else if (value instanceof List) {
+            return toArray((List<?>) value);
+        }
+        return value;
+    }
+
+    private static Object toArray(List<?> values) {
+        final Class<?> componentType = values.isEmpty()
+                ? Object.class
+                : toR2dbcValue(values.get(0)).getClass();
+        final Object array = Array.newInstance(componentType, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Array.set(array, i, toR2dbcValue(values.get(i)));
+        }
+        return array;
+    }
+}
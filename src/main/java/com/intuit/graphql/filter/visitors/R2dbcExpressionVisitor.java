@@ -0,0 +1,61 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+import com.intuit.graphql.filter.visitors.ParameterizedSQLExpressionValueVisitor.BindMarkers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for traversing
+ * the expression tree and generating an R2DBC
+ * expression, i.e. a SQL WHERE clause with the
+ * bind markers of the target driver and the
+ * values to bind on them.
+ */
+public class R2dbcExpressionVisitor extends AbstractParameterizedExpressionVisitor<R2dbcExpression> {
+
+    public R2dbcExpressionVisitor(Map<String, String> fieldMap) {
+        this(fieldMap, null);
+    }
+
+    public R2dbcExpressionVisitor(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
+        this(fieldMap, fieldValueTransformer, BindMarkers.DOLLAR_INDEXED);
+    }
+
+    public R2dbcExpressionVisitor(
+            Map<String, String> fieldMap,
+            FieldValueTransformer fieldValueTransformer,
+            BindMarkers bindMarkers) {
+        this(FieldMapping.of(fieldMap, fieldValueTransformer), bindMarkers);
+    }
+
+    private R2dbcExpressionVisitor(FieldMapping fieldMapping, BindMarkers bindMarkers) {
+        super(fieldMapping, bindMarkers);
+    }
+
+    /**
+     * Returns a visitor resolving field names through the
+     * given, possibly shared, field mapping.
+     * @param fieldMapping
+     * @return
+     */
+    public static R2dbcExpressionVisitor of(FieldMapping fieldMapping) {
+        return of(fieldMapping, BindMarkers.DOLLAR_INDEXED);
+    }
+
+    public static R2dbcExpressionVisitor of(FieldMapping fieldMapping, BindMarkers bindMarkers) {
+        return new R2dbcExpressionVisitor(fieldMapping, bindMarkers);
+    }
+
+    @Override
+    protected R2dbcExpression createExpression(String sql, List<Object> parameters) {
+        return new R2dbcExpression(sql, parameters);
+    }
+
+    @Override
+    protected String sql(R2dbcExpression data) {
+        return data == null ? "" : data.getSql();
+    }
+}
@@ -0,0 +1,94 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.CompoundExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionField;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.KeysetExpression;
+import com.intuit.graphql.filter.ast.UnaryExpression;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for traversing the expression
+ * tree and generating a copy of it with the field names
+ * mapped and the values transformed. Field mapping and
+ * value transformation run once per node, the resolved
+ * tree can then be translated to several formats by
+ * visitors built without any field mapping.
+ */
+public class ResolvingExpressionVisitor implements ExpressionVisitor<Expression> {
+
+    private final FieldMapping fieldMapping;
+
+    public ResolvingExpressionVisitor(Map<String, String> fieldMap, FieldValueTransformer fieldValueTransformer) {
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+    }
+
+    public ResolvingExpressionVisitor(FieldMapping fieldMapping) {
+        this.fieldMapping = fieldMapping;
+    }
+
+    /**
+     * Returns the resolved copy of the expression tree.
+     * @param expression
+     * @return
+     */
+    @Override
+    public Expression expression(Expression expression) {
+        return expression == null ? null : expression.accept(this, null);
+    }
+
+    @Override
+    public Expression visitCompoundExpression(CompoundExpression compoundExpression, Expression data) {
+        if (compoundExpression instanceof KeysetExpression) {
+            final List<BinaryExpression> boundaries = new ArrayList<>();
+            for (BinaryExpression boundary : ((KeysetExpression) compoundExpression).getBoundaries()) {
+                boundaries.add((BinaryExpression) boundary.accept(this, null));
+            }
+            return new KeysetExpression(boundaries);
+        }
+
+        return new CompoundExpression(
+                compoundExpression.getLeftOperand().accept(this, null),
+                compoundExpression.getOperator(),
+                compoundExpression.getRightOperand().accept(this, null));
+    }
+
+    @Override
+    public Expression visitBinaryExpression(BinaryExpression binaryExpression, Expression data) {
+        final String fieldName = binaryExpression.getLeftOperand().infix();
+        final ResolvedField resolvedField = fieldMapping.resolve(fieldName);
+        Expression rightOperand = binaryExpression.getRightOperand();
+        if (resolvedField.isValueTransformed()) {
+            rightOperand = new ExpressionValue(fieldMapping.transformValue(
+                    resolvedField, fieldName, ((ExpressionValue) rightOperand).value()));
+        }
+
+        return new BinaryExpression(new ExpressionField(resolvedField.getName()), binaryExpression.getOperator(), rightOperand);
+    }
+
+    @Override
+    public Expression visitUnaryExpression(UnaryExpression unaryExpression, Expression data) {
+        return new UnaryExpression(
+                unaryExpression.getLeftOperand().accept(this, null),
+                unaryExpression.getOperator(),
+                null);
+    }
+
+    @Override
+    public Expression visitExpressionField(ExpressionField field, Expression data) {
+        return new ExpressionField(fieldMapping.resolveFieldName(field.infix()));
+    }
+
+    @Override
+    public Expression visitExpressionValue(ExpressionValue<? extends Comparable> value, Expression data) {
+        return value;
+    }
+}
@@ -3,6 +3,7 @@ package com.intuit.graphql.filter.visitors;
 import com.intuit.graphql.filter.ast.ExpressionValue;
 import com.intuit.graphql.filter.ast.Operator;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,7 @@ public class SQLExpressionValueVisitor {
         expressionValueHandlers.put(Operator.ENDS, new EndsHandler());
         expressionValueHandlers.put(Operator.BETWEEN, new BetweenHandler());
         expressionValueHandlers.put(Operator.IN, new InHandler());
+        expressionValueHandlers.put(Operator.JSON_CONTAINS, new JsonHandler());
     }
 
     public SQLExpressionValueVisitor(Map<Operator, ExpressionValueHandler> expressionValueHandlers) {
@@ -39,10 +41,40 @@ public class SQLExpressionValueVisitor {
         return expressionBuilder.toString();
     }
 
+    /**
+     * Writes the value to the given appendable
+     * instead of returning it.
+     * @param operator
+     * @param expressionValue
+     * @param appendable
+     * @throws IOException
+     */
+    public void visitExpressionValue(
+            Operator operator, ExpressionValue<? extends Object> expressionValue, Appendable appendable)
+            throws IOException {
+
+        final ExpressionValueHandler handler = expressionValueHandlers.get(operator);
+        if (handler != null) {
+            handler.handle(operator, appendable, expressionValue);
+        } else {
+            appendable.append(resolveValue(expressionValue.value()));
+        }
+    }
+
     public Map<Operator, ExpressionValueHandler> getExpressionValueHandlers() {
         return expressionValueHandlers;
     }
 
+    /**
+     * Returns true if values are bound as statement parameters
+     * instead of rendered as literals, in which case they must
+     * reach the visitor unescaped.
+     * @return
+     */
+    public boolean isBindingValues() {
+        return false;
+    }
+
     protected String resolveValue(Object value) {
         if (value instanceof Number) {
             return value.toString();
@@ -128,5 +160,45 @@ public class SQLExpressionValueVisitor {
 
             expressionBuilder.append(")");
         }
+
+        @Override
+        public void handle(
+                Operator operator,
+                Appendable appendable,
+                ExpressionValue<? extends Object> expressionValue) throws IOException {
+
+            final List<Object> expressionValues = (List<Object>)expressionValue.value();
+            appendable.append("(");
+
+            for (int i = 0; i < expressionValues.size(); i++) {
+                appendable.append(resolveValue(expressionValues.get(i)));
+                if (i < expressionValues.size() - 1) {
+                    appendable.append(", ");
+                }
+            }
+
+            appendable.append(")");
+        }
+    }
+
+    /**
+     * Renders the document as a jsonb literal. The SQL format
+     * inlines every value, so this literal relies on the quote
+     * escaping of the value normalizer like any other string;
+     * only the JDBC and R2DBC formats bind the document (see
+     * {@link ParameterizedSQLExpressionValueVisitor.JsonParameterHandler}).
+     * The {@code ?} operator of JSON_HAS_KEY is likewise left
+     * bare here, which is fine for a plain statement but not for
+     * a string handed to a prepared statement.
+     */
+    public class JsonHandler implements ExpressionValueHandler {
+        @Override
+        public void handle(
+                Operator operator,
+                StringBuilder expressionBuilder,
+                ExpressionValue<? extends Object> expressionValue) {
+
+            expressionBuilder.append("'").append(expressionValue.value()).append("'::jsonb");
+        }
     }
 }
@@ -7,99 +7,209 @@ import com.intuit.graphql.filter.ast.CompoundExpression;
 import com.intuit.graphql.filter.ast.Expression;
 import com.intuit.graphql.filter.ast.ExpressionField;
 import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.KeysetExpression;
 import com.intuit.graphql.filter.ast.Operator;
 import com.intuit.graphql.filter.ast.UnaryExpression;
-import com.intuit.graphql.filter.client.DefaultFieldValueTransformer;
-import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldMapping.ResolvedField;
 import com.intuit.graphql.filter.client.FieldValueTransformer;
 import com.intuit.graphql.filter.client.SqlQueryValueNormalizer;
 
-import java.util.ArrayDeque;
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * This class is responsible for traversing the expression
+ * tree and generating a SQL WHERE clause from it.
+ *
+ * The visitor holds configuration only, the state of a
+ * traversal lives in a per call context, so one configured
+ * instance can be shared by all request threads. Configure
+ * it before sharing it; mappings are copied on write. The
+ * metadata collector the public constructors create is not
+ * thread safe: pass a collector per call to a shared visitor,
+ * or set it to null.
+ */
 public class SQLExpressionVisitor implements ExpressionVisitor<String> {
     private static final String DOUBLE_QUOTE = "\"";
     private static final String ESCAPED_DOUBLE_QUOTE = "\\\\\\\"";
     private static final String DEFAULT_METADATA_PREFIX = "metadata@";
     private static final SqlQueryValueNormalizer DEFAULT_NORMALIZER = new SqlQueryValueNormalizer();
-    private static final Map<Operator, String> DEFAULT_MAPPINGS = new HashMap<>();
-    private static final DefaultFieldValueTransformer DEFAULT_FIELD_VALUE_TRANSFORMER = new DefaultFieldValueTransformer();
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+    private static final Map<Operator, String> DEFAULT_MAPPINGS;
 
     static {
+        final Map<Operator, String> mappings = new HashMap<>();
+
         // Logical operators
-        DEFAULT_MAPPINGS.put(Operator.AND, "AND");
-        DEFAULT_MAPPINGS.put(Operator.OR, "OR");
-        DEFAULT_MAPPINGS.put(Operator.NOT, "NOT");
+        mappings.put(Operator.AND, "AND");
+        mappings.put(Operator.OR, "OR");
+        mappings.put(Operator.NOT, "NOT");
 
         // Relational string operators
-        DEFAULT_MAPPINGS.put(Operator.EQUALS, "=");
-        DEFAULT_MAPPINGS.put(Operator.CONTAINS, "LIKE");
-        DEFAULT_MAPPINGS.put(Operator.STARTS, "LIKE");
-        DEFAULT_MAPPINGS.put(Operator.ENDS, "LIKE");
+        mappings.put(Operator.EQUALS, "=");
+        mappings.put(Operator.CONTAINS, "LIKE");
+        mappings.put(Operator.STARTS, "LIKE");
+        mappings.put(Operator.ENDS, "LIKE");
 
         // Relational numeric operators
-        DEFAULT_MAPPINGS.put(Operator.LT, "<");
-        DEFAULT_MAPPINGS.put(Operator.GT, ">");
-        DEFAULT_MAPPINGS.put(Operator.EQ, "=");
-        DEFAULT_MAPPINGS.put(Operator.GTE, ">=");
-        DEFAULT_MAPPINGS.put(Operator.LTE, "<=");
+        mappings.put(Operator.LT, "<");
+        mappings.put(Operator.GT, ">");
+        mappings.put(Operator.EQ, "=");
+        mappings.put(Operator.GTE, ">=");
+        mappings.put(Operator.LTE, "<=");
 
         // Common operators
-        DEFAULT_MAPPINGS.put(Operator.IN, "IN");
-        DEFAULT_MAPPINGS.put(Operator.BETWEEN, "BETWEEN");
+        mappings.put(Operator.IN, "IN");
+        mappings.put(Operator.BETWEEN, "BETWEEN");
+
+        // Json operators (PostgreSQL jsonb, served by GIN indexes)
+        mappings.put(Operator.JSON_CONTAINS, "@>");
+        mappings.put(Operator.JSON_HAS_KEY, "?");
+
+        DEFAULT_MAPPINGS = Collections.unmodifiableMap(mappings);
     }
 
 
-    private final Deque<Operator> operatorStack;
-    private final Deque<ExpressionField> fieldStack;
-    private final Map<String, String> fieldMap;
-    private FieldValueTransformer fieldValueTransformer;
+    private final FieldMapping fieldMapping;
     private SQLExpressionValueVisitor expressionValueVisitor;
     private CustomExpressionResolver customExpressionResolver = (fieldName, operator) -> null;
-    private Map<Operator, String> mappings;
+    private volatile Map<Operator, String> mappings;
     private Map<String, List<String>> metadataCollector;
     private SqlQueryValueNormalizer sqlQueryValueNormalizer;
     private ObjectMapper objectMapper;
+    private PrefixRangeRewriter prefixRangeRewriter;
 
     private boolean generateWherePrefix = true;
+    private boolean keysetRowValueComparison = false;
+    private boolean collectMetadata = true;
     private String metadataPrefix = DEFAULT_METADATA_PREFIX;
 
+    /**
+     * Creates a visitor collecting the metadata of the calls
+     * without a collector of their own into a collector of
+     * its own, see {@link #getMetadataCollector()}.
+     * @param fieldMap
+     */
     public SQLExpressionVisitor(final Map<String, String> fieldMap) {
-        this.operatorStack = new ArrayDeque<>();
-        this.fieldStack = new ArrayDeque<>();
-        this.mappings = new HashMap<>(DEFAULT_MAPPINGS);
-        this.metadataCollector = new HashMap<>();
-        this.fieldMap = fieldMap;
-        this.expressionValueVisitor = SQLExpressionValueVisitor.DEFAULT;
-        this.fieldValueTransformer = DEFAULT_FIELD_VALUE_TRANSFORMER;
-        this.sqlQueryValueNormalizer = DEFAULT_NORMALIZER;
-        this.objectMapper = new ObjectMapper();
+        this(fieldMap, null);
     }
 
     public SQLExpressionVisitor(
             final Map<String, String> fieldMap,
             final FieldValueTransformer fieldValueTransformer) {
-        this(fieldMap);
-        this.fieldValueTransformer = fieldValueTransformer;
+        this(FieldMapping.of(fieldMap, fieldValueTransformer));
+        this.metadataCollector = new HashMap<>();
     }
 
-    /** Returns the SQL WHERE clause string from the expression tree. */
+    private SQLExpressionVisitor(final FieldMapping fieldMapping) {
+        this.mappings = DEFAULT_MAPPINGS;
+        this.fieldMapping = fieldMapping;
+        this.expressionValueVisitor = SQLExpressionValueVisitor.DEFAULT;
+        this.sqlQueryValueNormalizer = DEFAULT_NORMALIZER;
+        this.objectMapper = DEFAULT_OBJECT_MAPPER;
+    }
+
+    /**
+     * Returns a visitor resolving field names through the
+     * given, possibly shared, field mapping. It has no
+     * metadata collector of its own.
+     * @param fieldMapping
+     * @return
+     */
+    public static SQLExpressionVisitor of(final FieldMapping fieldMapping) {
+        return new SQLExpressionVisitor(fieldMapping);
+    }
+
+    /**
+     * Returns the SQL WHERE clause string from the expression tree.
+     * Metadata goes to the collector set on this visitor, if any,
+     * which is shared by all calls: pass a collector per call to
+     * {@link #expression(Expression, Map)} instead when the visitor
+     * is shared.
+     */
     @Override
     public String expression(final Expression expression) {
-        String expressionString = generateWherePrefix ? "WHERE " : "";
+        return expression(expression, metadataCollector);
+    }
+
+    /**
+     * Returns the SQL WHERE clause string from the expression tree,
+     * collecting the metadata of this call into the given map.
+     *
+     * @param expression The expression tree.
+     * @param metadataCollector Receives the filter values per field.
+     * @return The SQL WHERE clause.
+     */
+    public String expression(final Expression expression, final Map<String, List<String>> metadataCollector) {
+        return expression(expression, expressionValueVisitor, metadataCollector);
+    }
+
+    /**
+     * Returns the SQL WHERE clause string from the expression tree,
+     * rendering values with the given value visitor for this call
+     * only, e.g. one collecting bind parameters.
+     *
+     * @param expression The expression tree.
+     * @param expressionValueVisitor Renders the values.
+     * @param metadataCollector Receives the filter values per field.
+     * @return The SQL WHERE clause.
+     */
+    public String expression(
+            final Expression expression,
+            final SQLExpressionValueVisitor expressionValueVisitor,
+            final Map<String, List<String>> metadataCollector) {
+
+        final String expressionString = generateWherePrefix ? "WHERE " : "";
         if (expression != null) {
-            expressionString = expression.accept(this, expressionString);
+            return visit(expression, expressionString, expressionValueVisitor, metadataCollector);
         }
 
         return expressionString;
     }
 
+    /**
+     * Visits an expression node in a new traversal, appending
+     * to the given data and without any WHERE prefix.
+     */
+    String visit(
+            final Expression expression,
+            final String data,
+            final SQLExpressionValueVisitor expressionValueVisitor,
+            final Map<String, List<String>> metadataCollector) {
+        return expression.accept(new Traversal(expressionValueVisitor, metadataCollector), data);
+    }
+
+    /**
+     * Writes the SQL WHERE clause of the expression tree to the
+     * given appendable (e.g. a Writer or CharBuffer) as it is
+     * generated, without building the clause as one String.
+     * Binary expressions are written value by value, IN lists
+     * included, unless metadata is collected, a custom
+     * expression applies or the prefix range rewrite kicks in,
+     * in which case that expression alone is buffered. Metadata
+     * goes to the collector set on this visitor, if any.
+     *
+     * @param expression The expression tree.
+     * @param appendable Destination of the clause.
+     * @throws IOException If the appendable fails.
+     */
+    public void expression(final Expression expression, final Appendable appendable) throws IOException {
+        if (generateWherePrefix) {
+            appendable.append("WHERE ");
+        }
+        if (expression != null) {
+            new Traversal(expressionValueVisitor, metadataCollector).appendExpression(expression, appendable);
+        }
+    }
+
     /**
      * Handles the processing of compound expression node.
      *
@@ -110,15 +220,7 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
     @Override
     public String visitCompoundExpression(
             final CompoundExpression compoundExpression, final String data) {
-        return new StringBuilder(data)
-                .append("(")
-                .append(compoundExpression.getLeftOperand().accept(this, ""))
-                .append(" ")
-                .append(resolveOperator(compoundExpression.getOperator()).toUpperCase())
-                .append(" ")
-                .append(compoundExpression.getRightOperand().accept(this, ""))
-                .append(")")
-                .toString();
+        return newTraversal().visitCompoundExpression(compoundExpression, data);
     }
 
     /**
@@ -130,20 +232,7 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
      */
     @Override
     public String visitBinaryExpression(final BinaryExpression binaryExpression, final String data) {
-        final String leftOperand = binaryExpression.getLeftOperand().accept(this, "");
-        operatorStack.push(binaryExpression.getOperator());
-
-        final String rightOperand = binaryExpression.getRightOperand().accept(this, "");
-        final String[] filterValues = rightOperand.replaceAll("[(){}]", "").split(",");
-        collectMetadata(leftOperand, filterValues);
-
-        if (customExpressionResolver.contains(leftOperand, binaryExpression.getOperator())) {
-            final String resolvedOperator = resolveOperator(binaryExpression.getOperator());
-            return formatCustomBinaryExpression(
-                    data, leftOperand, resolvedOperator, rightOperand, binaryExpression, filterValues);
-        } else {
-            return formatBinaryExpression(data, leftOperand, binaryExpression, rightOperand);
-        }
+        return newTraversal().visitBinaryExpression(binaryExpression, data);
     }
 
     /**
@@ -155,13 +244,7 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
      */
     @Override
     public String visitUnaryExpression(final UnaryExpression unaryExpression, final String data) {
-        return new StringBuilder(data)
-                .append("( ")
-                .append(resolveOperator(unaryExpression.getOperator()))
-                .append(" ")
-                .append(unaryExpression.getLeftOperand().accept(this, ""))
-                .append(")")
-                .toString();
+        return newTraversal().visitUnaryExpression(unaryExpression, data);
     }
 
     /**
@@ -173,17 +256,7 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
      */
     @Override
     public String visitExpressionField(final ExpressionField field, final String data) {
-        final StringBuilder expressionBuilder = new StringBuilder(data);
-        final String infix = field.infix();
-        if (fieldMap != null && fieldMap.get(infix) != null) {
-            expressionBuilder.append(fieldMap.get(infix));
-        } else if (fieldValueTransformer != null && fieldValueTransformer.transformField(infix) != null) {
-            expressionBuilder.append(fieldValueTransformer.transformField(infix));
-            fieldStack.push(field); //pushing the field for lookup while visiting value.
-        } else {
-            expressionBuilder.append(infix);
-        }
-        return expressionBuilder.toString();
+        return data + fieldMapping.resolveFieldName(field.infix());
     }
 
     /**
@@ -195,37 +268,258 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
      */
     @Override
     public String visitExpressionValue(final ExpressionValue expressionValue, final String data) {
-        final Operator operator = operatorStack.pop();ExpressionValue value = expressionValue;
-        if (!fieldStack.isEmpty() && fieldValueTransformer != null) {
-            ExpressionField field  = fieldStack.pop(); // pop the field associated with this value.
-            FieldValuePair fieldValuePair = fieldValueTransformer.transformValue(field.infix(), value.value());
-            if (fieldValuePair != null && fieldValuePair.getValue() != null) {
-                final ExpressionValue newExpressionValue = getNormalizedFieldExpressionValue(fieldValuePair.getValue());
-                expressionValueVisitor.visitExpressionValue(operator, newExpressionValue, data);
+        return newTraversal().visitExpressionValue(expressionValue, data);
+    }
+
+    private Traversal newTraversal() {
+        return new Traversal(expressionValueVisitor, metadataCollector);
+    }
+
+    /**
+     * The state of one traversal: the value visitor
+     * and the metadata collector of the call.
+     */
+    private final class Traversal implements ExpressionVisitor<String> {
+        private final SQLExpressionValueVisitor expressionValueVisitor;
+        private final Map<String, List<String>> metadataCollector;
+
+        private Traversal(
+                final SQLExpressionValueVisitor expressionValueVisitor,
+                final Map<String, List<String>> metadataCollector) {
+            this.expressionValueVisitor = expressionValueVisitor;
+            this.metadataCollector = metadataCollector;
+        }
+
+        @Override
+        public String expression(final Expression expression) {
+            return expression.accept(this, "");
+        }
+
+        @Override
+        public String visitCompoundExpression(
+                final CompoundExpression compoundExpression, final String data) {
+            if (isRowValueKeyset(compoundExpression)) {
+                return formatRowValueKeyset(data, (KeysetExpression) compoundExpression);
             }
+
+            return new StringBuilder(data)
+                    .append("(")
+                    .append(compoundExpression.getLeftOperand().accept(this, ""))
+                    .append(" ")
+                    .append(resolveOperator(compoundExpression.getOperator()).toUpperCase())
+                    .append(" ")
+                    .append(compoundExpression.getRightOperand().accept(this, ""))
+                    .append(")")
+                    .toString();
         }
 
-        final ExpressionValue normalizedExpression = getNormalizedFieldExpressionValue(expressionValue.value());
-        return expressionValueVisitor.visitExpressionValue(operator, normalizedExpression, data);
-    }
+        @Override
+        public String visitBinaryExpression(final BinaryExpression binaryExpression, final String data) {
+            final ResolvedField resolvedField = fieldMapping.resolve(binaryExpression.getLeftOperand().infix());
+            final String leftOperand = resolvedField.getName();
+            final Object value = getTransformedValue(resolvedField, binaryExpression);
+            if (isPrefixRangeCandidate(leftOperand, binaryExpression)) {
+                return formatPrefixExpression(data, leftOperand, binaryExpression, value);
+            }
 
-    private ExpressionValue getNormalizedFieldExpressionValue(Object value) {
-        if (value instanceof String) {
-            return new ExpressionValue(normalizeString((String) value));
-        } else if (value instanceof List) {
-            final List<?> values = (List) value;
-            final List<Object> normalizedValues = values.stream().map(object -> {
-                if (object instanceof String) {
-                    return normalizeString((String) object);
+            final String rightOperand = formatValue(binaryExpression.getOperator(), value);
+            final String[] filterValues = splitFilterValues(rightOperand);
+            collectMetadata(leftOperand, filterValues);
+
+            if (customExpressionResolver.contains(leftOperand, binaryExpression.getOperator())) {
+                final String resolvedOperator = resolveOperator(binaryExpression.getOperator());
+                return formatCustomBinaryExpression(
+                        data, leftOperand, resolvedOperator, rightOperand, binaryExpression, filterValues);
+            } else {
+                return formatBinaryExpression(data, leftOperand, binaryExpression, rightOperand);
+            }
+        }
+
+        @Override
+        public String visitUnaryExpression(final UnaryExpression unaryExpression, final String data) {
+            return new StringBuilder(data)
+                    .append("( ")
+                    .append(resolveOperator(unaryExpression.getOperator()))
+                    .append(" ")
+                    .append(unaryExpression.getLeftOperand().accept(this, ""))
+                    .append(")")
+                    .toString();
+        }
+
+        @Override
+        public String visitExpressionField(final ExpressionField field, final String data) {
+            return data + fieldMapping.resolveFieldName(field.infix());
+        }
+
+        @Override
+        public String visitExpressionValue(final ExpressionValue expressionValue, final String data) {
+            /* Values of binary expressions are rendered with their operator, a bare value gets the default handler. */
+            return expressionValueVisitor.visitExpressionValue(
+                    null, getNormalizedFieldExpressionValue(expressionValue.value()), data);
+        }
+
+        private void appendExpression(final Expression expression, final Appendable appendable) throws IOException {
+            if (expression instanceof CompoundExpression && !isRowValueKeyset((CompoundExpression) expression)) {
+                final CompoundExpression compoundExpression = (CompoundExpression) expression;
+                appendable.append("(");
+                appendExpression(compoundExpression.getLeftOperand(), appendable);
+                appendable.append(" ")
+                        .append(resolveOperator(compoundExpression.getOperator()).toUpperCase())
+                        .append(" ");
+                appendExpression(compoundExpression.getRightOperand(), appendable);
+                appendable.append(")");
+            } else if (expression instanceof UnaryExpression) {
+                final UnaryExpression unaryExpression = (UnaryExpression) expression;
+                appendable.append("( ")
+                        .append(resolveOperator(unaryExpression.getOperator()))
+                        .append(" ");
+                appendExpression(unaryExpression.getLeftOperand(), appendable);
+                appendable.append(")");
+            } else if (expression instanceof BinaryExpression && !isCollecting()
+                    && isStreamable((BinaryExpression) expression)) {
+                appendBinaryExpression((BinaryExpression) expression, appendable);
+            } else {
+                appendable.append(expression.accept(this, ""));
+            }
+        }
+
+        private void appendBinaryExpression(final BinaryExpression binaryExpression, final Appendable appendable)
+                throws IOException {
+
+            final ResolvedField resolvedField = fieldMapping.resolve(binaryExpression.getLeftOperand().infix());
+            appendable.append("(")
+                    .append(resolvedField.getName())
+                    .append(" ")
+                    .append(resolveOperator(binaryExpression.getOperator()))
+                    .append(" ");
+
+            final ExpressionValue normalizedExpression = getNormalizedFieldExpressionValue(
+                    getTransformedValue(resolvedField, binaryExpression));
+            expressionValueVisitor.visitExpressionValue(binaryExpression.getOperator(), normalizedExpression, appendable);
+            appendable.append(")");
+        }
+
+        private String formatValue(final Operator operator, final Object value) {
+            return expressionValueVisitor.visitExpressionValue(operator, getNormalizedFieldExpressionValue(value), "");
+        }
+
+        private String formatRowValueKeyset(final String data, final KeysetExpression keysetExpression) {
+            final List<String> fields = new ArrayList<>();
+            final List<String> values = new ArrayList<>();
+            for (BinaryExpression boundary : keysetExpression.getBoundaries()) {
+                final ResolvedField resolvedField = fieldMapping.resolve(boundary.getLeftOperand().infix());
+                fields.add(resolvedField.getName());
+                values.add(formatValue(boundary.getOperator(), getTransformedValue(resolvedField, boundary)));
+            }
+
+            final Operator operator = keysetExpression.getBoundaries().get(0).getOperator();
+            return String.format("%s((%s) %s (%s))", data,
+                    String.join(", ", fields), resolveOperator(operator), String.join(", ", values));
+        }
+
+        private String formatPrefixExpression(
+                final String data,
+                final String leftOperand,
+                final BinaryExpression binaryExpression,
+                final Object prefix) {
+
+            if (!prefixRangeRewriter.isRewritable(leftOperand, prefix)) {
+                final String rightOperand = formatValue(Operator.STARTS, prefix);
+                collectMetadata(leftOperand, splitFilterValues(rightOperand));
+                return formatBinaryExpression(data, leftOperand, binaryExpression, rightOperand);
+            }
+
+            final String lowerBound = formatValue(Operator.GTE, prefix);
+            collectMetadata(leftOperand, splitFilterValues(lowerBound));
+            final String successor = PrefixRangeRewriter.successor((String) prefix);
+            if (successor == null) {
+                return String.format("%s(%s >= %s)", data, leftOperand, lowerBound);
+            }
+
+            final String upperBound = formatValue(Operator.LT, successor);
+            return String.format("%s(%s >= %s AND %s < %s)", data, leftOperand, lowerBound, leftOperand, upperBound);
+        }
+
+        private ExpressionValue getNormalizedFieldExpressionValue(Object value) {
+            if (expressionValueVisitor.isBindingValues()) {
+                return new ExpressionValue(value);
+            }
+
+            if (value instanceof String) {
+                return new ExpressionValue(normalizeString((String) value));
+            } else if (value instanceof List) {
+                final List<?> values = (List) value;
+                // normalized lazily, large IN lists are not copied
+                final List<Object> normalizedValues = new AbstractList<Object>() {
+                    @Override
+                    public Object get(int index) {
+                        final Object object = values.get(index);
+                        return object instanceof String ? normalizeString((String) object) : object;
+                    }
+
+                    @Override
+                    public int size() {
+                        return values.size();
+                    }
+                };
+
+                return new ExpressionValue(normalizedValues);
+            }
+
+            return new ExpressionValue(value);
+        }
+
+        private boolean isCollecting() {
+            return collectMetadata && metadataCollector != null;
+        }
+
+        private void collectMetadata(final String metaDataType, final String[] filterValues) {
+            if (!isCollecting()) {
+                return;
+            }
+
+            final List<String> filterValueList = new ArrayList<>();
+            for (String filterValue : filterValues) {
+                if (filterValue.contains(DOUBLE_QUOTE)) {
+                    filterValueList.add(normalizeDoubleQuotes(filterValue));
                 } else {
-                    return object;
+                    filterValueList.add(filterValue);
                 }
-            }).toList();
+            }
 
-            return new ExpressionValue(normalizedValues);
+            metadataCollector.put(metadataPrefix + metaDataType, filterValueList);
         }
+    }
+
+    private boolean isStreamable(final BinaryExpression binaryExpression) {
+        if (!(binaryExpression.getLeftOperand() instanceof ExpressionField)) {
+            return false;
+        }
+
+        final String leftOperand = fieldMapping.resolveFieldName(binaryExpression.getLeftOperand().infix());
+        return !isPrefixRangeCandidate(leftOperand, binaryExpression)
+                && !customExpressionResolver.contains(leftOperand, binaryExpression.getOperator());
+    }
+
+    private Object getTransformedValue(final ResolvedField resolvedField, final BinaryExpression binaryExpression) {
+        final Object value = ((ExpressionValue) binaryExpression.getRightOperand()).value();
+        return fieldMapping.transformValue(resolvedField, binaryExpression.getLeftOperand().infix(), value);
+    }
+
+    private boolean isRowValueKeyset(final CompoundExpression compoundExpression) {
+        return keysetRowValueComparison
+                && compoundExpression instanceof KeysetExpression
+                && ((KeysetExpression) compoundExpression).isUniformDirection();
+    }
 
-        return new ExpressionValue(value);
+    private boolean isPrefixRangeCandidate(final String leftOperand, final BinaryExpression binaryExpression) {
+        return prefixRangeRewriter != null
+                && Operator.STARTS.equals(binaryExpression.getOperator())
+                && !customExpressionResolver.contains(leftOperand, binaryExpression.getOperator());
+    }
+
+    private static String[] splitFilterValues(final String rightOperand) {
+        return rightOperand.replaceAll("[(){}]", "").split(",");
     }
 
     private String prepareCustomExpression(
@@ -291,19 +585,6 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
         return String.format("(%s %s)", data, customExpression);
     }
 
-    private void collectMetadata(final String metaDataType, final String[] filterValues) {
-        final List<String> filterValueList = new ArrayList<>();
-        for (String filterValue : filterValues) {
-            if (filterValue.contains(DOUBLE_QUOTE)) {
-                filterValueList.add(normalizeDoubleQuotes(filterValue));
-            } else {
-                filterValueList.add(filterValue);
-            }
-        }
-
-        metadataCollector.put(metadataPrefix + metaDataType, filterValueList);
-    }
-
     private String normalizeDoubleQuotes(String filterValue) {
         final String normalizedFilterValue =
                 filterValue.replace(DOUBLE_QUOTE, ESCAPED_DOUBLE_QUOTE);
@@ -324,13 +605,21 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
     }
 
     public void addMapping(Operator operator, String sql) {
-        mappings.put(operator, sql);
+        final Map<Operator, String> copy = new HashMap<>(mappings);
+        copy.put(operator, sql);
+        mappings = Collections.unmodifiableMap(copy);
     }
 
     public void removeMapping(Operator operator) {
-        mappings.remove(operator);
+        final Map<Operator, String> copy = new HashMap<>(mappings);
+        copy.remove(operator);
+        mappings = Collections.unmodifiableMap(copy);
     }
 
+    /**
+     * Returns the current, unmodifiable, operator mappings.
+     * @return
+     */
     public Map<Operator, String> getMappings() {
         return mappings;
     }
@@ -347,6 +636,36 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
         this.generateWherePrefix = generateWherePrefix;
     }
 
+    public boolean isKeysetRowValueComparison() {
+        return keysetRowValueComparison;
+    }
+
+    /**
+     * Renders keyset predicates whose sort keys share one
+     * direction as a row value comparison, (a, b) > (1, 'x'),
+     * instead of the expanded OR form. Off by default as not
+     * every database supports (or indexes) row values.
+     * @param keysetRowValueComparison
+     */
+    public void setKeysetRowValueComparison(boolean keysetRowValueComparison) {
+        this.keysetRowValueComparison = keysetRowValueComparison;
+    }
+
+    public boolean isCollectMetadata() {
+        return collectMetadata;
+    }
+
+    /**
+     * Enables (the default) or disables the collection of
+     * the filter values per field into the metadata collector.
+     * Streaming large filters requires it to be disabled, or
+     * no collector to be set.
+     * @param collectMetadata
+     */
+    public void setCollectMetadata(boolean collectMetadata) {
+        this.collectMetadata = collectMetadata;
+    }
+
     public String getMetadataPrefix() {
         return metadataPrefix;
     }
@@ -355,6 +674,12 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
         this.metadataPrefix = metadataPrefix;
     }
 
+    /**
+     * Sets the collector receiving the metadata of the calls
+     * without a collector of their own, null to collect
+     * nothing. It is shared by all these calls.
+     * @param metadataCollector
+     */
     public void setMetadataCollector(Map<String, List<String>> metadataCollector) {
         this.metadataCollector = metadataCollector;
     }
@@ -379,6 +704,19 @@ public class SQLExpressionVisitor implements ExpressionVisitor<String> {
         this.customExpressionResolver = customExpressionResolver;
     }
 
+    public PrefixRangeRewriter getPrefixRangeRewriter() {
+        return prefixRangeRewriter;
+    }
+
+    /**
+     * Enables the rewrite of prefix matches into range
+     * predicates, null disables it (the default).
+     * @param prefixRangeRewriter
+     */
+    public void setPrefixRangeRewriter(PrefixRangeRewriter prefixRangeRewriter) {
+        this.prefixRangeRewriter = prefixRangeRewriter;
+    }
+
     public ObjectMapper getObjectMapper() {
         return objectMapper;
     }
@@ -0,0 +1,76 @@
+package com.intuit.graphql.filter.client;
+
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.visitors.ExpressionVisitor;
+import com.intuit.graphql.filter.visitors.InfixExpressionVisitor;
+import com.intuit.graphql.filter.visitors.SQLExpressionVisitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExpressionVisitorRegistryTest {
+
+    @Test
+    public void servesBuiltInFormats() {
+        ExpressionVisitor<String> visitor = ExpressionVisitorRegistry.getDefault()
+                .getExpressionVisitor(ExpressionFormat.SQL, Collections.singletonMap("firstName", "empFirstName"), null);
+
+        Assert.assertTrue(visitor instanceof SQLExpressionVisitor);
+        Assert.assertEquals("WHERE (empFirstName = 'Saurabh')",
+                filterExpression(ExpressionVisitorRegistry.getDefault()).getExpression(visitor));
+    }
+
+    @Test
+    public void sharesPreBuiltVisitor() {
+        SQLExpressionVisitor sqlVisitor = new SQLExpressionVisitor(null);
+        sqlVisitor.addMapping(Operator.EQUALS, "ILIKE");
+        sqlVisitor.setGenerateWherePrefix(false);
+        ExpressionVisitorRegistry registry = ExpressionVisitorRegistry.withDefaults()
+                .register(ExpressionFormat.SQL, sqlVisitor);
+
+        Assert.assertSame(sqlVisitor, registry.getExpressionVisitor(ExpressionFormat.SQL, null, null));
+        Assert.assertEquals("(firstName ILIKE 'Saurabh')",
+                filterExpression(registry).getExpression(ExpressionFormat.SQL));
+        Assert.assertEquals("(firstName ILIKE 'Saurabh')",
+                filterExpression(registry).getExpression(ExpressionFormat.SQL));
+    }
+
+    @Test
+    public void servesThirdPartyFormat() {
+        ExpressionVisitorRegistry registry = new ExpressionVisitorRegistry()
+                .register("UPPER_INFIX", fieldMapping -> new InfixExpressionVisitor(fieldMapping.getFieldMap(),
+                        new UpperCaseTransformer()));
+
+        Assert.assertTrue(registry.contains("UPPER_INFIX"));
+        Assert.assertEquals("(FIRSTNAME equals SAURABH)", filterExpression(registry).getExpression("UPPER_INFIX"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unknownFormat() {
+        filterExpression(new ExpressionVisitorRegistry()).getExpression(ExpressionFormat.SQL);
+    }
+
+    private FilterExpression filterExpression(ExpressionVisitorRegistry registry) {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("firstName", Collections.singletonMap("equals", "Saurabh"));
+        return FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap(FilterExpression.FilterExpressionBuilder.FILTER_ARG, filter))
+                .registry(registry)
+                .build();
+    }
+
+    private static class UpperCaseTransformer implements FieldValueTransformer {
+        @Override
+        public String transformField(String fieldName) {
+            return fieldName.toUpperCase();
+        }
+
+        @Override
+        public FieldValuePair<? extends Object> transformValue(String fieldName, Object value) {
+            return new FieldValuePair<>(fieldName, value.toString().toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.intuit.graphql.filter.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FieldMappingTest {
+
+    @Test
+    public void fieldMapTakesPrecedence() {
+        CountingTransformer transformer = new CountingTransformer(true);
+        FieldMapping fieldMapping = FieldMapping.of(Collections.singletonMap("firstName", "first_name"), transformer);
+
+        Assert.assertEquals("first_name", fieldMapping.resolveFieldName("firstName"));
+        Assert.assertFalse(fieldMapping.resolve("firstName").isValueTransformed());
+        Assert.assertEquals("Saurabh", fieldMapping.transformValue("firstName", "Saurabh"));
+        Assert.assertEquals(0, transformer.fieldCalls.get());
+    }
+
+    @Test
+    public void memoizesCacheableTransformer() {
+        CountingTransformer transformer = new CountingTransformer(true);
+        FieldMapping fieldMapping = FieldMapping.of(null, transformer);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("WHERE ((emp_age >= 300) AND (emp_age < 600))",
+                    filterExpression(fieldMapping).getExpression(ExpressionFormat.SQL));
+        }
+        Assert.assertEquals(1, transformer.fieldCalls.get());
+    }
+
+    @Test
+    public void resolvesNonCacheableTransformerOncePerNode() {
+        CountingTransformer transformer = new CountingTransformer(false);
+        FieldMapping fieldMapping = FieldMapping.of(null, transformer);
+
+        Assert.assertEquals("((emp_age gte 300) and (emp_age lt 600))",
+                filterExpression(fieldMapping).getExpression(ExpressionFormat.INFIX));
+        Assert.assertEquals(2, transformer.fieldCalls.get());
+        Assert.assertEquals(2, transformer.valueCalls.get());
+    }
+
+    @Test
+    public void retainsNoUnmappedName() {
+        CountingTransformer transformer = new CountingTransformer(true);
+        FieldMapping fieldMapping = FieldMapping.of(Collections.singletonMap("firstName", "first_name"), transformer);
+
+        Assert.assertEquals("lastName", fieldMapping.resolveFieldName("lastName"));
+        Assert.assertEquals("lastName", fieldMapping.resolveFieldName("lastName"));
+        Assert.assertEquals(2, transformer.fieldCalls.get());
+    }
+
+    @Test
+    public void isMappedDoesNotMemoize() {
+        CountingTransformer transformer = new CountingTransformer(true);
+        FieldMapping fieldMapping = FieldMapping.of(Collections.singletonMap("firstName", "first_name"), transformer);
+
+        Assert.assertTrue(fieldMapping.isMapped("firstName"));
+        Assert.assertTrue(fieldMapping.isMapped("age"));
+        Assert.assertFalse(fieldMapping.isMapped("salary"));
+        Assert.assertFalse(fieldMapping.isMapped("salary"));
+        Assert.assertEquals(3, transformer.fieldCalls.get());
+
+        Assert.assertEquals("emp_age", fieldMapping.resolveFieldName("age"));
+        Assert.assertEquals(4, transformer.fieldCalls.get());
+        Assert.assertTrue(fieldMapping.isMapped("age"));
+        Assert.assertEquals(4, transformer.fieldCalls.get());
+    }
+
+    @Test
+    public void identityMapping() {
+        Assert.assertSame(FieldMapping.identity(), FieldMapping.of(Collections.emptyMap(), null));
+        Assert.assertEquals("age", FieldMapping.identity().resolveFieldName("age"));
+        Assert.assertEquals(25, FieldMapping.identity().transformValue("age", 25));
+    }
+
+    private FilterExpression filterExpression(FieldMapping fieldMapping) {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25)),
+                Collections.singletonMap("age", Collections.singletonMap("lt", 50))));
+        return FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap(FilterExpression.FilterExpressionBuilder.FILTER_ARG, filter))
+                .fieldMapping(fieldMapping)
+                .build();
+    }
+
+    private static class CountingTransformer implements FieldValueTransformer {
+        private final AtomicInteger fieldCalls = new AtomicInteger();
+        private final AtomicInteger valueCalls = new AtomicInteger();
+        private final boolean cacheable;
+
+        private CountingTransformer(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public String transformField(String fieldName) {
+            fieldCalls.incrementAndGet();
+            return "age".equals(fieldName) ? "emp_age" : null;
+        }
+
+        @Override
+        public FieldValuePair<? extends Object> transformValue(String fieldName, Object value) {
+            valueCalls.incrementAndGet();
+            return new FieldValuePair<>(fieldName, ((Number) value).intValue() * 12);
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return cacheable;
+        }
+    }
+}
@@ -54,6 +54,29 @@ public class FilterExpressionParserTest {
         Assert.assertEquals("((firstName contains ABC) or (lastName equals XYZ))", expression.infix());
     }
 
+    @Test
+    public void nestedFilterExpressionTest() {
+        // Create the mock data.
+        Map<String, Object> argMaps = new LinkedHashMap<>();
+        argMaps.put("address", createCompoundFilterArgMap());
+
+        // Invoke method under test.
+        FilterExpressionParser expressionParser = new FilterExpressionParser();
+        Expression expression = expressionParser.parseFilterExpression(argMaps);
+
+        // Verify assertions.
+        Assert.assertEquals("((address.firstName contains ABC) or (address.lastName equals XYZ))", expression.infix());
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void unknownOperatorTest() {
+        new FilterExpressionParser().parseFilterExpression(createBinaryFilterArgMap("firstName", "equalz", "ABC"));
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void emptyFieldFilterTest() {
+        new FilterExpressionParser().parseFilterExpression(Collections.singletonMap("firstName", new HashMap<>()));
+    }
 
     private Map<String, Object> createBinaryFilterArgMap(String left, String op, String right) {
         Map<String, Object> argsMap = new LinkedHashMap<>();
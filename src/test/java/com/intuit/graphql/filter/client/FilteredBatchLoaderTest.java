@@ -0,0 +1,67 @@
+package com.intuit.graphql.filter.client;
+
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public class FilteredBatchLoaderTest {
+
+    private static final List<String[]> ADDRESSES = Arrays.asList(
+            new String[]{"e1", "Austin"},
+            new String[]{"e1", "Dallas"},
+            new String[]{"e2", "Austin"},
+            new String[]{"e3", "Austin"});
+
+    @Test
+    public void oneQueryPerFilter() {
+        List<String> queries = new ArrayList<>();
+        FilteredBatchLoader<String, String[]> batchLoader = new FilteredBatchLoader<>(
+                ExpressionFormat.SQL,
+                "employeeId",
+                (String where) -> {
+                    queries.add(where);
+                    return select(where);
+                },
+                address -> address[0]);
+        DataLoader<FilteredBatchLoader.Key<String>, List<String[]>> dataLoader = DataLoaderFactory.newDataLoader(batchLoader);
+
+        Map<String, Object> austin = Collections.singletonMap("city", Collections.singletonMap("equals", "Austin"));
+        CompletableFuture<List<String[]>> first = dataLoader.load(FilteredBatchLoader.Key.of("e1", austin));
+        CompletableFuture<List<String[]>> second = dataLoader.load(FilteredBatchLoader.Key.of("e2", austin));
+        CompletableFuture<List<String[]>> unfiltered = dataLoader.load(FilteredBatchLoader.Key.of("e1", null));
+        CompletableFuture<List<String[]>> none = dataLoader.load(FilteredBatchLoader.Key.of("e4", austin));
+        dataLoader.dispatchAndJoin();
+
+        Assert.assertEquals(Arrays.asList(
+                "WHERE ((employeeId IN ('e1', 'e2', 'e4')) AND (city = 'Austin'))",
+                "WHERE (employeeId IN ('e1'))"), queries);
+        Assert.assertEquals(Collections.singletonList("e1 Austin"), rows(first.join()));
+        Assert.assertEquals(Collections.singletonList("e2 Austin"), rows(second.join()));
+        Assert.assertEquals(Arrays.asList("e1 Austin", "e1 Dallas"), rows(unfiltered.join()));
+        Assert.assertTrue(none.join().isEmpty());
+    }
+
+    /**
+     * Returns the addresses matching the generated clause, which
+     * only holds an employeeId IN list and an optional city equality.
+     */
+    private static List<String[]> select(String where) {
+        return ADDRESSES.stream()
+                .filter(address -> where.contains("'" + address[0] + "'"))
+                .filter(address -> !where.contains("city = ") || where.contains("city = '" + address[1] + "'"))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> rows(List<String[]> addresses) {
+        return addresses.stream().map(address -> String.join(" ", address)).collect(Collectors.toList());
+    }
+}
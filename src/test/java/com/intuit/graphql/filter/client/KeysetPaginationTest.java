@@ -0,0 +1,43 @@
+package com.intuit.graphql.filter.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+public class KeysetPaginationTest {
+
+    @Test
+    public void cursorRoundTripKeepsValueTypes() {
+        List<Object> values = Arrays.asList(
+                "O'Neil", 7, 7L, 1.5d, new BigDecimal("10.25"), true, Instant.parse("2024-12-20T00:39:57Z"));
+
+        List<Object> decoded = KeysetCursor.decode(KeysetCursor.encode(values));
+
+        Assert.assertEquals(values, decoded);
+    }
+
+    @Test
+    public void cursorNormalizesDates() {
+        java.sql.Timestamp timestamp = java.sql.Timestamp.from(Instant.parse("2024-12-20T00:39:57.123Z"));
+
+        List<Object> decoded = KeysetCursor.decode(KeysetCursor.encode(Arrays.asList(timestamp)));
+
+        Assert.assertEquals(Arrays.asList(Instant.parse("2024-12-20T00:39:57.123Z")), decoded);
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void invalidCursor() {
+        KeysetCursor.decode("not-a-cursor");
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void cursorNotMatchingSortSpecification() {
+        String cursor = KeysetCursor.encode(Arrays.asList(1));
+
+        new KeysetPagination(SortSpecification.of(SortSpecification.asc("age"), SortSpecification.asc("id")), cursor);
+    }
+}
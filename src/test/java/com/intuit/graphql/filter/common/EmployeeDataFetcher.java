@@ -21,6 +21,7 @@ import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,8 +33,12 @@ public class EmployeeDataFetcher {
 
     private String expression;
     private String sqlExpression;
+    private String sqlQuery;
+    private String sqlColumns;
+    private FilterExpression sqlFilterExpression;
     private Specification<Object> specification;
     private Criteria mongoCriteria;
+    private Query mongoQuery;
     private org.springframework.data.elasticsearch.core.query.Criteria elasticsearchCriteria;
 
     public EmployeeDataFetcher() {
@@ -66,8 +71,12 @@ public class EmployeeDataFetcher {
                 FilterExpression filterExpression = builder.field(dataFetchingEnvironment.getField())
                         .map(fieldMap)
                         .args(dataFetchingEnvironment.getArguments())
+                        .selectionSet(dataFetchingEnvironment.getSelectionSet())
                         .build();
                 sqlExpression = filterExpression.getExpression(ExpressionFormat.SQL);
+                sqlQuery = filterExpression.getQuery(ExpressionFormat.SQL);
+                sqlColumns = filterExpression.getResultShape().toSqlColumns();
+                sqlFilterExpression = filterExpression;
                 return null;
             }
         };
@@ -95,8 +104,10 @@ public class EmployeeDataFetcher {
                 FilterExpression.FilterExpressionBuilder builder = FilterExpression.newFilterExpressionBuilder();
                 FilterExpression filterExpression = builder.field(dataFetchingEnvironment.getField())
                         .args(dataFetchingEnvironment.getArguments())
+                        .selectionSet(dataFetchingEnvironment.getSelectionSet())
                         .build();
                 mongoCriteria = filterExpression.getExpression(ExpressionFormat.MONGO);
+                mongoQuery = filterExpression.getQuery(ExpressionFormat.MONGO);
                 return null;
             }
         };
@@ -124,6 +135,22 @@ public class EmployeeDataFetcher {
         return sqlExpression;
     }
 
+    public String getSqlQuery() {
+        return sqlQuery;
+    }
+
+    public String getSqlColumns() {
+        return sqlColumns;
+    }
+
+    public FilterExpression getSqlFilterExpression() {
+        return sqlFilterExpression;
+    }
+
+    public Query getMongoQuery() {
+        return mongoQuery;
+    }
+
     public Specification<Object> getSpecification() {
         return specification;
     }
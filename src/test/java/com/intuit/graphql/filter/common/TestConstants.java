@@ -295,4 +295,21 @@ public class TestConstants {
             "    lastName\n" +
             "  }\n" +
             "}";
+
+    public static final String SORTED_LIMITED_FILTER = "{\n" +
+            "  searchEmployees(filter: {\n" +
+            "    age : {gte: 25}\n" +
+            "  }, orderBy: [{field: \"age\", direction: DESC}, {field: \"firstName\"}], first: 10) {\n" +
+            "    firstName\n" +
+            "    age\n" +
+            "  }\n" +
+            "}";
+
+    public static final String SORTED_UNSELECTED_FILTER = "{\n" +
+            "  searchEmployees(filter: {\n" +
+            "    age : {gte: 25}\n" +
+            "  }, orderBy: [{field: \"firstName\"}], first: 2) {\n" +
+            "    lastName\n" +
+            "  }\n" +
+            "}";
 }
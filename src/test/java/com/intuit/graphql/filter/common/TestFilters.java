@@ -0,0 +1,47 @@
+package com.intuit.graphql.filter.common;
+
+import com.intuit.graphql.filter.client.FilterExpression;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the filter arguments and filter expressions
+ * of the tests without a GraphQL query.
+ */
+public final class TestFilters {
+
+    private TestFilters() {
+    }
+
+    /**
+     * Returns the filter of one field condition, e.g.
+     * {@code {age: {gte: 25}}}.
+     */
+    public static Map<String, Object> filter(String field, String operator, Object value) {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put(field, Collections.singletonMap(operator, value));
+        return filter;
+    }
+
+    /**
+     * Returns modifiable arguments holding the filter
+     * of one field condition.
+     */
+    public static Map<String, Object> filterArgs(String field, String operator, Object value) {
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put(FilterExpression.FilterExpressionBuilder.FILTER_ARG, filter(field, operator, value));
+        return args;
+    }
+
+    public static FilterExpression filterExpression(Map<String, Object> filter) {
+        return FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap(FilterExpression.FilterExpressionBuilder.FILTER_ARG, filter))
+                .build();
+    }
+
+    public static FilterExpression filterExpression(String field, String operator, Object value) {
+        return filterExpression(filter(field, operator, value));
+    }
+}
@@ -0,0 +1,120 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.client.ExpressionVisitorRegistry;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FilterExpressionParser;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+public class BsonExpressionVisitorTest {
+
+    private final FilterExpressionParser parser = new FilterExpressionParser();
+
+    @Test
+    public void sameShapeAsMongoCriteria() {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("firstName", Collections.singletonMap("contains", "a.b")),
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25)),
+                Collections.singletonMap("age", Collections.singletonMap("lt", 40)),
+                Collections.singletonMap("or", Arrays.asList(
+                        Collections.singletonMap("lastName", Collections.singletonMap("in", Arrays.asList("Jaiswal", "Lal"))),
+                        Collections.singletonMap("not", Collections.singletonMap(
+                                "or", Arrays.asList(
+                                        Collections.singletonMap("age", Collections.singletonMap("eq", 30)),
+                                        Collections.singletonMap("age", Collections.singletonMap("between", Arrays.asList(1, 5))))))))));
+        Expression expression = parser.parseFilterExpression(filter);
+
+        Assert.assertEquals(
+                new MongoCriteriaExpressionVisitor<>(FieldMapping.identity()).expression(expression).getCriteriaObject().toJson(),
+                new BsonExpressionVisitor(FieldMapping.identity()).expression(expression).toJson());
+    }
+
+    @Test
+    public void typedValues() {
+        Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("id", Collections.singletonMap("eq", 12345678901L)),
+                Collections.singletonMap("birthDate", Collections.singletonMap("gt", instant)),
+                Collections.singletonMap("email", Collections.singletonMap("starts", "a+b"))));
+
+        BsonDocument query = new BsonExpressionVisitor(FieldMapping.identity()).expression(parser.parseFilterExpression(filter));
+
+        Assert.assertEquals(new BsonInt64(12345678901L), query.get("id"));
+        Assert.assertEquals(new BsonDateTime(instant.toEpochMilli()), query.getDocument("birthDate").get("$gt"));
+        Assert.assertEquals(new BsonRegularExpression("^a\\+b"), query.get("email"));
+
+        Document decoded = roundTrip(query);
+        Assert.assertEquals(12345678901L, decoded.get("id"));
+        Assert.assertEquals(Date.from(instant), decoded.get("birthDate", Document.class).get("$gt"));
+    }
+
+    @Test
+    public void localDateTimesAtUtc() {
+        TimeZone zone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        try {
+            long epochMilli = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+            Assert.assertEquals(new BsonDateTime(epochMilli),
+                    BsonExpressionVisitor.toBsonValue(LocalDateTime.of(2020, 1, 1, 0, 0)));
+            Assert.assertEquals(new BsonDateTime(epochMilli),
+                    BsonExpressionVisitor.toBsonValue(LocalDate.of(2020, 1, 1)));
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+    }
+
+    @Test
+    public void typedListValues() {
+        BsonDocument query = new BsonExpressionVisitor(FieldMapping.identity()).expression(parser.parseFilterExpression(
+                Collections.singletonMap("id", Collections.singletonMap("in", Arrays.asList(1L, 2L)))));
+
+        List<?> ids = roundTrip(query).get("id", Document.class).get("$in", List.class);
+        Assert.assertEquals(Arrays.asList(1L, 2L), ids);
+    }
+
+    @Test
+    public void registeredFormat() {
+        Object query = ExpressionVisitorRegistry.getDefault()
+                .getExpressionVisitor(ExpressionFormat.BSON, FieldMapping.identity())
+                .expression(parser.parseFilterExpression(
+                        Collections.singletonMap("age", Collections.singletonMap("gte", 25))));
+
+        Assert.assertEquals("{\"age\": {\"$gte\": 25}}", ((BsonDocument) query).toJson());
+    }
+
+    /* Encodes the query as the driver sends it and decodes it back as a document. */
+    private static Document roundTrip(BsonDocument query) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), query, EncoderContext.builder().build());
+        return new DocumentCodec().decode(
+                new BsonBinaryReader(ByteBuffer.wrap(buffer.toByteArray())), DecoderContext.builder().build());
+    }
+}
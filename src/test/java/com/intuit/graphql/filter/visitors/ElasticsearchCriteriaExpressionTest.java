@@ -15,6 +15,11 @@
  */
 package com.intuit.graphql.filter.visitors;
 
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.client.FilterExpression;
+import com.intuit.graphql.filter.client.KeysetPagination;
+import com.intuit.graphql.filter.client.PaginationQueries;
+import com.intuit.graphql.filter.client.SortSpecification;
 import com.intuit.graphql.filter.common.TestConstants;
 import graphql.ExecutionResult;
 import graphql.scalars.ExtendedScalars;
@@ -22,6 +27,11 @@ import graphql.schema.idl.RuntimeWiring;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
 
@@ -131,4 +141,43 @@ public class ElasticsearchCriteriaExpressionTest extends BaseFilterExpressionTes
         Assert.assertEquals(expectedCriteria.toString(), actualCriteria.toString());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void keysetCriteria() {
+        SortSpecification sort = SortSpecification.of(SortSpecification.desc("age"), SortSpecification.asc("lastName"));
+        Map<String, Object> lastRow = new LinkedHashMap<>();
+        lastRow.put("age", 30);
+        lastRow.put("lastName", "Jaiswal");
+        Criteria actualCriteria = FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter",
+                        Collections.singletonMap("firstName", Collections.singletonMap("equals", "Saurabh"))))
+                .sort(sort)
+                .after(KeysetPagination.cursorOf(sort, lastRow))
+                .build()
+                .getExpression(ExpressionFormat.ELASTICSEARCH);
+
+        Criteria expectedCriteria = Criteria.where("firstName").expression("'Saurabh'")
+                .and(Criteria.where("age").lessThan(30)
+                        .or(Criteria.where("age").is(30).and(Criteria.where("lastName").greaterThan("Jaiswal"))));
+
+        Assert.assertEquals(expectedCriteria.toString(), actualCriteria.toString());
+    }
+
+    @Test
+    public void paginationQueries() {
+        Map<String, Object> filter = Collections.singletonMap("age", Collections.singletonMap("gte", 25));
+        PaginationQueries<CriteriaQuery> queries = FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter", filter))
+                .limit(10)
+                .build()
+                .getPaginationQueries(ExpressionFormat.ELASTICSEARCH);
+
+        Assert.assertEquals(Integer.valueOf(10), queries.getPageQuery().getMaxResults());
+        Assert.assertEquals(Criteria.where("age").greaterThanEqual(25).toString(),
+                queries.getCountQuery().getCriteria().toString());
+        Assert.assertEquals(Integer.valueOf(0), queries.getCountQuery().getMaxResults());
+        Assert.assertEquals(Boolean.TRUE, queries.getCountQuery().getTrackTotalHits());
+        Assert.assertEquals(Integer.valueOf(1), queries.getExistsQuery().getMaxResults());
+        Assert.assertEquals(Integer.valueOf(100), queries.getCappedCountQuery(100).getTrackTotalHitsUpTo());
+    }
+
+}
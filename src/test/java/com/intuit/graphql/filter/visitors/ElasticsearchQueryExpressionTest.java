@@ -0,0 +1,105 @@
+package com.intuit.graphql.filter.visitors;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermsLookup;
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.client.ExpressionVisitorRegistry;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FilterExpressionParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ElasticsearchQueryExpressionTest {
+
+    private final ElasticsearchQueryExpressionVisitor visitor = new ElasticsearchQueryExpressionVisitor(FieldMapping.identity());
+
+    @Test
+    public void filterContext() {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal")),
+                Collections.singletonMap("and", Arrays.asList(
+                        Collections.singletonMap("age", Collections.singletonMap("between", Arrays.asList(25, 40))),
+                        Collections.singletonMap("birthDate", Collections.singletonMap("lt", Instant.parse("2000-01-01T00:00:00Z"))))),
+                Collections.singletonMap("firstName", Collections.singletonMap("starts", "Sau"))));
+
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":["
+                        + "{\"term\":{\"lastName\":{\"value\":\"Jaiswal\"}}},"
+                        + "{\"range\":{\"age\":{\"gte\":25,\"lte\":40}}},"
+                        + "{\"range\":{\"birthDate\":{\"lt\":\"2000-01-01T00:00:00Z\"}}},"
+                        + "{\"prefix\":{\"firstName\":{\"value\":\"Sau\"}}}]}}",
+                query(filter).toString());
+    }
+
+    @Test
+    public void sqlDate() {
+        java.sql.Date date = new java.sql.Date(Instant.parse("2000-01-01T00:00:00Z").toEpochMilli());
+
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":[{\"range\":{\"birthDate\":{\"lt\":\"2000-01-01T00:00:00Z\"}}}]}}",
+                query(Collections.singletonMap("birthDate", Collections.singletonMap("lt", date))).toString());
+    }
+
+    @Test
+    public void disjunctionAndNegation() {
+        Map<String, Object> filter = Collections.singletonMap("or", Arrays.asList(
+                Collections.singletonMap("id", Collections.singletonMap("in", Arrays.asList(1, 2))),
+                Collections.singletonMap("not", Collections.singletonMap("or", Arrays.asList(
+                        Collections.singletonMap("email", Collections.singletonMap("contains", "a*b")),
+                        Collections.singletonMap("age", Collections.singletonMap("eq", 30)))))));
+
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":[{\"bool\":{\"minimum_should_match\":\"1\",\"should\":["
+                        + "{\"terms\":{\"id\":[1,2]}},"
+                        + "{\"bool\":{\"must_not\":["
+                        + "{\"wildcard\":{\"email\":{\"value\":\"*a\\\\*b*\"}}},"
+                        + "{\"term\":{\"age\":{\"value\":30}}}]}}]}}]}}",
+                query(filter).toString());
+    }
+
+    @Test
+    public void chunkedTerms() {
+        visitor.setTermsStrategy(ElasticsearchTermsStrategy.chunked(2));
+
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":[{\"bool\":{\"minimum_should_match\":\"1\",\"should\":["
+                        + "{\"terms\":{\"id\":[1,2]}},"
+                        + "{\"terms\":{\"id\":[3]}}]}}]}}",
+                query(Collections.singletonMap("id", Collections.singletonMap("in", Arrays.asList(1, 2, 3)))).toString());
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":[{\"terms\":{\"id\":[1,2]}}]}}",
+                query(Collections.singletonMap("id", Collections.singletonMap("in", Arrays.asList(1, 2)))).toString());
+    }
+
+    @Test
+    public void termsLookup() {
+        List<Object> lookedUp = new ArrayList<>();
+        visitor.setTermsStrategy(ElasticsearchTermsStrategy.chunked(2).withLookup(2, (fieldName, values) -> {
+            lookedUp.addAll(values);
+            return TermsLookup.of(lookup -> lookup.index("filter-terms").id("request-1").path(fieldName));
+        }));
+
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":[{\"terms\":{\"id\":"
+                        + "{\"index\":\"filter-terms\",\"id\":\"request-1\",\"path\":\"id\"}}}]}}",
+                query(Collections.singletonMap("id", Collections.singletonMap("in", Arrays.asList(1, 2, 3)))).toString());
+        Assert.assertEquals(Arrays.asList(1, 2, 3), lookedUp);
+    }
+
+    @Test
+    public void registeredFormat() {
+        Object query = ExpressionVisitorRegistry.getDefault()
+                .getExpressionVisitor(ExpressionFormat.ELASTICSEARCH_QUERY, FieldMapping.identity())
+                .expression(new FilterExpressionParser().parseFilterExpression(
+                        Collections.singletonMap("age", Collections.singletonMap("gte", 25))));
+
+        Assert.assertEquals("Query: {\"bool\":{\"filter\":[{\"range\":{\"age\":{\"gte\":25}}}]}}", query.toString());
+    }
+
+    private Query query(Map<String, Object> filter) {
+        return visitor.expression(new FilterExpressionParser().parseFilterExpression(filter));
+    }
+}
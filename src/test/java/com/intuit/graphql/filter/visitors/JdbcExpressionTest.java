@@ -0,0 +1,185 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.visitors.ParameterizedSQLExpressionValueVisitor.InListBinding;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.intuit.graphql.filter.common.TestFilters.filter;
+import static com.intuit.graphql.filter.common.TestFilters.filterExpression;
+
+public class JdbcExpressionTest {
+
+    private Connection connection;
+
+    @Before
+    public void init() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:jdbcExpressionTest");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE employee (id BIGINT PRIMARY KEY, firstName VARCHAR(64), "
+                    + "lastName VARCHAR(64), age INT, birthDate TIMESTAMP)");
+            statement.execute("INSERT INTO employee VALUES "
+                    + "(1, 'Saurabh', 'Jaiswal', 30, TIMESTAMP '1990-05-01 00:00:00'), "
+                    + "(2, 'Vinod', 'Kumar', 25, TIMESTAMP '1995-01-15 00:00:00'), "
+                    + "(3, 'Shaun', 'O''Neil', 41, TIMESTAMP '1981-11-30 00:00:00'), "
+                    + "(4, 'Sam', 'Lee', 19, TIMESTAMP '2001-07-04 00:00:00')");
+        }
+    }
+
+    @After
+    public void close() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE employee");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void bindsStringWithoutEscaping() throws SQLException {
+        JdbcExpression expression = jdbcExpression(filter("lastName", "equals", "O'Neil"));
+
+        Assert.assertEquals("WHERE (lastName = ?)", expression.getSql());
+        Assert.assertEquals(Collections.singletonList("O'Neil"), expression.getParameters());
+        Assert.assertEquals(Collections.singletonList(3L), query(expression));
+    }
+
+    @Test
+    public void bindsLikeAndNumericValues() throws SQLException {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                filter("firstName", "starts", "S"),
+                filter("age", "between", Arrays.asList(20, 45))));
+        JdbcExpression expression = jdbcExpression(filter);
+
+        Assert.assertEquals("WHERE ((firstName LIKE ?) AND (age BETWEEN ? AND ?))", expression.getSql());
+        Assert.assertEquals(Arrays.asList("S%", 20, 45), expression.getParameters());
+        Assert.assertEquals(Arrays.asList(1L, 3L), query(expression));
+    }
+
+    @Test
+    public void bindsTimestamp() throws SQLException {
+        JdbcExpression expression = jdbcExpression(filter("birthDate", "gt", Instant.parse("1994-01-01T00:00:00Z")));
+
+        Assert.assertEquals("WHERE (birthDate > ?)", expression.getSql());
+        Assert.assertEquals(Arrays.asList(2L, 4L), query(expression));
+    }
+
+    @Test
+    public void bindsLocalDateTimeInDefaultZone() throws SQLException {
+        List<Object> bound = new ArrayList<>();
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> bound.add(args[1]));
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+        try {
+            jdbcExpression(filter("birthDate", "gt", LocalDateTime.of(1995, 1, 15, 0, 0))).bind(statement);
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+
+        Assert.assertEquals(Collections.singletonList(LocalDateTime.of(1995, 1, 15, 0, 0)), bound);
+    }
+
+    @Test
+    public void expandsInList() throws SQLException {
+        JdbcExpression expression = jdbcExpression(filter("age", "in", Arrays.asList(19, 41)));
+
+        Assert.assertEquals("WHERE (age IN (?, ?))", expression.getSql());
+        Assert.assertEquals(Arrays.asList(3L, 4L), query(expression));
+    }
+
+    @Test
+    public void recordsNoBindMarkersAsMetadata() {
+        JdbcExpressionVisitor visitor = new JdbcExpressionVisitor(null);
+        Map<String, List<String>> metadata = new HashMap<>();
+        visitor.getSqlExpressionVisitor().setMetadataCollector(metadata);
+
+        JdbcExpression expression = filterExpression(filter("age", "in", Arrays.asList(19, 41)))
+                .getExpression(visitor);
+
+        Assert.assertEquals("WHERE (age IN (?, ?))", expression.getSql());
+        Assert.assertTrue(metadata.isEmpty());
+    }
+
+    @Test
+    public void bindsBareExpressionValue() {
+        JdbcExpression expression = new JdbcExpressionVisitor(null)
+                .visitExpressionValue(new ExpressionValue<>("O'Neil"), null);
+
+        Assert.assertEquals("?", expression.getSql());
+        Assert.assertEquals(Collections.singletonList("O'Neil"), expression.getParameters());
+    }
+
+    @Test
+    public void bindsInListAsArray() throws SQLException {
+        JdbcExpressionVisitor visitor = new JdbcExpressionVisitor(null);
+        visitor.setInListBinding(InListBinding.ARRAY);
+
+        JdbcExpression expression = filterExpression(filter("age", "in", Arrays.asList(19, 25, 41)))
+                .getExpression(visitor);
+        JdbcExpression otherExpression = filterExpression(filter("age", "in", Arrays.asList(30)))
+                .getExpression(visitor);
+
+        Assert.assertEquals("WHERE (age = ANY(?))", expression.getSql());
+        Assert.assertEquals(expression.getSql(), otherExpression.getSql());
+        Assert.assertEquals(Arrays.asList(2L, 3L, 4L), query(expression));
+        Assert.assertEquals(Collections.singletonList(1L), query(otherExpression));
+    }
+
+    @Test
+    public void sqlDependsOnShapeOnly() {
+        JdbcExpression expression = jdbcExpression(filter("firstName", "contains", "au"));
+        JdbcExpression otherExpression = jdbcExpression(filter("firstName", "contains", "in'o"));
+
+        Assert.assertEquals(expression.getSql(), otherExpression.getSql());
+        Assert.assertEquals(Collections.singletonList("%in'o%"), otherExpression.getParameters());
+    }
+
+    @Test
+    public void escapesJsonHasKeyOperator() {
+        JdbcExpression expression = jdbcExpression(filter("metadata", "jsonHasKey", "team"));
+
+        Assert.assertEquals("WHERE (metadata ?? ?)", expression.getSql());
+        Assert.assertEquals(Collections.singletonList("team"), expression.getParameters());
+    }
+
+    private List<Long> query(JdbcExpression expression) throws SQLException {
+        final List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id FROM employee " + expression.getSql() + " ORDER BY id")) {
+            expression.bind(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private JdbcExpression jdbcExpression(Map<String, Object> filter) {
+        return filterExpression(filter).getExpression(ExpressionFormat.JDBC);
+    }
+}
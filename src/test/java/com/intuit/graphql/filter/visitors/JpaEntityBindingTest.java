@@ -0,0 +1,195 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.ast.BinaryExpression;
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.client.FilterExpressionParser;
+import com.intuit.graphql.filter.client.InvalidFilterException;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TimeZone;
+
+public class JpaEntityBindingTest {
+
+    private final JpaEntityBinding<Employee> binding = JpaEntityBinding.of(entityType(Employee.class));
+
+    @Test
+    public void fieldNames() {
+        Assert.assertEquals(new LinkedHashSet<>(Arrays.asList(
+                "id", "firstName", "lastName", "age", "grade", "birthDate", "hiredAt", "addresses.id", "addresses.city")),
+                binding.getFieldNames());
+        Assert.assertEquals(Integer.class, binding.getJavaType("age"));
+    }
+
+    @Test
+    public void convertsValues() {
+        Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+
+        Assert.assertEquals(25, binding.bind("age", Operator.EQ, 25L));
+        Assert.assertEquals(Arrays.asList(25, 30), binding.bind("age", Operator.IN, Arrays.asList(25L, "30")));
+        Assert.assertEquals(Date.from(instant), binding.bind("birthDate", Operator.GT, instant));
+        Assert.assertEquals("Austin", binding.bind("addresses.city", Operator.EQUALS, "Austin"));
+        Assert.assertEquals('A', binding.bind("grade", Operator.EQUALS, "A"));
+    }
+
+    @Test
+    public void convertsParsedLocalValuesBack() {
+        TimeZone zone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        try {
+            LocalDateTime hiredAt = LocalDateTime.of(2020, 1, 1, 0, 0);
+            Expression expression = new FilterExpressionParser().parseFilterExpression(
+                    Collections.singletonMap("hiredAt", Collections.singletonMap("gt", hiredAt)));
+            Object value = ((ExpressionValue<?>) ((BinaryExpression) expression).getRightOperand()).value();
+
+            Assert.assertEquals(hiredAt, binding.bind("hiredAt", Operator.GT, value));
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+    }
+
+    @Test
+    public void convertsSqlDates() {
+        java.sql.Date date = java.sql.Date.valueOf("2020-01-01");
+
+        Assert.assertEquals(new Date(date.getTime()), binding.bind("birthDate", Operator.GT, date));
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void rejectsMultiCharacterValue() {
+        binding.bind("grade", Operator.EQUALS, "AB");
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void rejectsInexactValue() {
+        binding.bind("age", Operator.EQ, 25.5);
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void rejectsPatternOnNonStringField() {
+        binding.bind("age", Operator.CONTAINS, "2");
+    }
+
+    @Test(expected = InvalidFilterException.class)
+    public void rejectsUnknownFieldAtCompilation() {
+        JpaSpecificationExpressionVisitor<Employee> visitor = new JpaSpecificationExpressionVisitor<>();
+        visitor.setEntityBinding(binding);
+
+        visitor.compile(new FilterExpressionParser().parseFilterExpression(
+                Collections.singletonMap("salary", Collections.singletonMap("gt", 100))));
+    }
+
+    @Test
+    public void unindexedFieldNames() {
+        Assert.assertEquals(Arrays.asList("addresses.city", "age", "birthDate", "firstName", "grade", "hiredAt"),
+                binding.getUnindexedFieldNames());
+    }
+
+    @Table(name = "employee", indexes = @Index(columnList = "last_name, first_name"))
+    private static class Employee {
+        @Id
+        String id;
+        String firstName;
+        @Column(name = "last_name")
+        String lastName;
+        int age;
+        char grade;
+        Date birthDate;
+        LocalDateTime hiredAt;
+        Set<Address> addresses;
+    }
+
+    @Table(name = "address")
+    private static class Address {
+        @Id
+        String id;
+        String city;
+        Employee employee;
+    }
+
+    /**
+     * Returns the entity type of a test entity, as a JPA
+     * provider would build it from the declared fields.
+     */
+    private static <E> EntityType<E> entityType(Class<E> javaType) {
+        return (EntityType<E>) Proxy.newProxyInstance(EntityType.class.getClassLoader(), new Class<?>[]{EntityType.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getJavaType":
+                            return javaType;
+                        case "getAttributes":
+                            Set<Attribute<?, ?>> attributes = new LinkedHashSet<>();
+                            for (Field field : javaType.getDeclaredFields()) {
+                                if (!field.isSynthetic()) {
+                                    attributes.add(attribute(field));
+                                }
+                            }
+                            return attributes;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static Attribute<?, ?> attribute(Field field) {
+        boolean plural = Set.class.equals(field.getType());
+        Class<?> targetType = plural
+                ? (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0]
+                : field.getType();
+        return (Attribute<?, ?>) Proxy.newProxyInstance(Attribute.class.getClassLoader(),
+                new Class<?>[]{plural ? PluralAttribute.class : SingularAttribute.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                            return field.getName();
+                        case "getJavaType":
+                            return field.getType();
+                        case "getJavaMember":
+                            return field;
+                        case "isCollection":
+                            return plural;
+                        case "getType":
+                        case "getElementType":
+                            return targetType.isAnnotationPresent(Table.class)
+                                    ? entityType(targetType)
+                                    : basicType(targetType);
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static Type<?> basicType(Class<?> javaType) {
+        return (Type<?>) Proxy.newProxyInstance(Type.class.getClassLoader(), new Class<?>[]{Type.class},
+                (proxy, method, args) -> "getJavaType".equals(method.getName()) ? javaType : null);
+    }
+}
@@ -15,14 +15,40 @@
  */
 package com.intuit.graphql.filter.visitors;
 
+import com.intuit.graphql.filter.ast.UnaryExpression;
+import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+import com.intuit.graphql.filter.client.FilterExpression;
+import com.intuit.graphql.filter.client.FilterExpressionParser;
+import com.intuit.graphql.filter.client.KeysetPagination;
+import com.intuit.graphql.filter.client.ResultShape;
+import com.intuit.graphql.filter.client.SortSpecification;
 import com.intuit.graphql.filter.common.TestConstants;
 import graphql.ExecutionResult;
 import graphql.scalars.ExtendedScalars;
 import graphql.schema.idl.RuntimeWiring;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
 
 /**
@@ -112,6 +138,285 @@ public class JpaSpecificationExpressionTest extends BaseFilterExpressionTest {
         Assert.assertNotNull(specification);
     }
 
+    @Test
+    public void compiledParameterizedSpecification() {
+        AtomicInteger transformations = new AtomicInteger();
+        FieldValueTransformer transformer = new FieldValueTransformer() {
+            @Override
+            public String transformField(String fieldName) {
+                return "age".equals(fieldName) ? "empAge" : null;
+            }
+
+            @Override
+            public FieldValuePair<? extends Object> transformValue(String fieldName, Object value) {
+                transformations.incrementAndGet();
+                return new FieldValuePair<>(fieldName, ((Number) value).intValue() * 12);
+            }
+        };
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("firstName", Collections.singletonMap("contains", "Sa")),
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25))));
+        JpaSpecificationExpressionVisitor<Object> visitor = new JpaSpecificationExpressionVisitor<>(
+                Collections.singletonMap("firstName", "empFirstName"), transformer);
+        visitor.setParameterized(true);
+
+        CompiledSpecification<Object> specification = visitor.compile(
+                new FilterExpressionParser().parseFilterExpression(filter));
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("filter0", "%Sa%");
+        parameters.put("filter1", 300);
+        Assert.assertEquals(parameters, specification.getParameters());
+
+        List<String> calls = new ArrayList<>();
+        specification.toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                recorder(CriteriaBuilder.class, calls));
+        specification.toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                recorder(CriteriaBuilder.class, calls));
+        specification.bind(recorder(Query.class, calls));
+
+        Assert.assertEquals(1, transformations.get());
+        Assert.assertEquals(2, Collections.frequency(calls, "get[empFirstName]"));
+        Assert.assertEquals(2, Collections.frequency(calls, "parameter[class java.lang.String, filter0]"));
+        Assert.assertEquals(2, Collections.frequency(calls, "parameter[class java.lang.Integer, filter1]"));
+        Assert.assertTrue(calls.contains("setParameter[filter0, %Sa%]"));
+        Assert.assertTrue(calls.contains("setParameter[filter1, 300]"));
+    }
+
+    @Test
+    public void parameterizedNullEquality() {
+        JpaSpecificationExpressionVisitor<Object> visitor = new JpaSpecificationExpressionVisitor<>();
+        visitor.setParameterized(true);
+
+        CompiledSpecification<Object> specification = visitor.compile(new FilterExpressionParser()
+                .parseFilterExpression(Collections.singletonMap("lastName", Collections.singletonMap("equals", null))));
+
+        List<String> calls = new ArrayList<>();
+        specification.toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(Arrays.asList("get", "isNull"), names(calls));
+        Assert.assertFalse(specification.isParameterized());
+    }
+
+    @Test
+    public void visitedNodeKeepsParameters() {
+        JpaSpecificationExpressionVisitor<Object> visitor = new JpaSpecificationExpressionVisitor<>();
+        visitor.setParameterized(true);
+        Map<String, Object> filter = Collections.singletonMap("not",
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25)));
+        UnaryExpression expression = (UnaryExpression) new FilterExpressionParser().parseFilterExpression(filter);
 
+        Specification<Object> specification = visitor.visitUnaryExpression(expression, null);
 
-}
\ No newline at end of file
+        Assert.assertEquals(Collections.singletonMap("filter0", 25),
+                ((CompiledSpecification<Object>) specification).getParameters());
+    }
+
+    @Test
+    public void compiledInlineSpecification() {
+        JpaSpecificationExpressionVisitor<Object> visitor = new JpaSpecificationExpressionVisitor<>(
+                Collections.singletonMap("firstName", "empFirstName"), null);
+
+        CompiledSpecification<Object> specification = visitor.compile(new FilterExpressionParser()
+                .parseFilterExpression(Collections.singletonMap("firstName", Collections.singletonMap("equals", "Saurabh"))));
+
+        List<String> calls = new ArrayList<>();
+        specification.toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertFalse(specification.isParameterized());
+        Assert.assertTrue(calls.contains("get[empFirstName]"));
+        Assert.assertFalse(calls.stream().anyMatch(call -> call.startsWith("parameter")));
+    }
+
+    @Test
+    public void nestedPathsShareOneJoin() {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("address", Collections.singletonMap("city", Collections.singletonMap("equals", "Austin"))),
+                Collections.singletonMap("address", Collections.singletonMap("state", Collections.singletonMap("equals", "TX")))));
+
+        List<String> calls = new ArrayList<>();
+        new JpaSpecificationExpressionVisitor<>()
+                .compile(new FilterExpressionParser().parseFilterExpression(filter))
+                .toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                        recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(1, Collections.frequency(calls, "join[address, INNER]"));
+        Assert.assertTrue(calls.contains("get[city]"));
+        Assert.assertTrue(calls.contains("get[state]"));
+        Assert.assertFalse(calls.contains("subquery[class java.lang.Integer]"));
+    }
+
+    @Test
+    public void negatedNestedPathUsesExists() {
+        Map<String, Object> filter = Collections.singletonMap("not",
+                Collections.singletonMap("address", Collections.singletonMap("city", Collections.singletonMap("equals", "Austin"))));
+
+        List<String> calls = new ArrayList<>();
+        new JpaSpecificationExpressionVisitor<>()
+                .compile(new FilterExpressionParser().parseFilterExpression(filter))
+                .toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                        recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(Arrays.asList("subquery", "correlate", "literal", "select", "join", "get",
+                "equal", "where", "exists", "not"), names(calls));
+    }
+
+    @Test
+    public void negatedNestedFilterUsesOneExists() {
+        Map<String, Object> address = Collections.singletonMap("and", Arrays.asList(
+                Collections.singletonMap("city", Collections.singletonMap("equals", "Austin")),
+                Collections.singletonMap("geo", Collections.singletonMap("state", Collections.singletonMap("equals", "TX")))));
+        Map<String, Object> filter = Collections.singletonMap("not", Collections.singletonMap("address", address));
+
+        List<String> calls = new ArrayList<>();
+        new JpaSpecificationExpressionVisitor<>()
+                .compile(new FilterExpressionParser().parseFilterExpression(filter))
+                .toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                        recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(1, Collections.frequency(names(calls), "subquery"));
+        Assert.assertEquals(Arrays.asList("join[address, INNER]", "join[geo, INNER]"),
+                calls.stream().filter(call -> call.startsWith("join")).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("where", "exists", "not"), names(calls).subList(calls.size() - 3, calls.size()));
+    }
+
+    @Test
+    public void disjunctionOfAssociationsUsesOneExistsEach() {
+        Map<String, Object> filter = Collections.singletonMap("or", Arrays.asList(
+                Collections.singletonMap("firstName", Collections.singletonMap("equals", "Saurabh")),
+                Collections.singletonMap("address", Collections.singletonMap("city", Collections.singletonMap("equals", "Austin"))),
+                Collections.singletonMap("manager", Collections.singletonMap("lastName", Collections.singletonMap("equals", "Lal")))));
+
+        List<String> calls = new ArrayList<>();
+        new JpaSpecificationExpressionVisitor<>()
+                .compile(new FilterExpressionParser().parseFilterExpression(filter))
+                .toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                        recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(2, Collections.frequency(names(calls), "subquery"));
+        Assert.assertEquals(Arrays.asList("join[address, INNER]", "join[manager, INNER]"),
+                calls.stream().filter(call -> call.startsWith("join")).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void prefixRangeRewrite() {
+        JpaSpecificationExpressionVisitor<Object> visitor = new JpaSpecificationExpressionVisitor<>(
+                Collections.singletonMap("firstName", "empFirstName"), null);
+        visitor.setPrefixRangeRewriter(PrefixRangeRewriter.forAllFields());
+
+        List<String> calls = new ArrayList<>();
+        visitor.compile(new FilterExpressionParser().parseFilterExpression(
+                        Collections.singletonMap("firstName", Collections.singletonMap("starts", "Sau"))))
+                .toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                        recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(Arrays.asList("get", "literal", "greaterThanOrEqualTo", "literal", "lessThan", "and"),
+                names(calls));
+        Assert.assertTrue(calls.contains("get[empFirstName]"));
+        Assert.assertEquals("literal[Sau]", calls.get(1));
+        Assert.assertEquals("literal[Sav]", calls.get(3));
+        Assert.assertFalse(calls.stream().anyMatch(call -> call.startsWith("like")));
+
+        calls.clear();
+        visitor.compile(new FilterExpressionParser().parseFilterExpression(
+                        Collections.singletonMap("firstName", Collections.singletonMap("starts", "􏿿"))))
+                .toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                        recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(Arrays.asList("get", "literal", "greaterThanOrEqualTo"), names(calls));
+    }
+
+    @Test
+    public void keysetSpecification() {
+        SortSpecification sort = SortSpecification.of(SortSpecification.desc("age"), SortSpecification.asc("lastName"));
+        Map<String, Object> lastRow = new LinkedHashMap<>();
+        lastRow.put("age", 30);
+        lastRow.put("lastName", "Jaiswal");
+        Specification<Object> specification = FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter",
+                        Collections.singletonMap("firstName", Collections.singletonMap("equals", "Saurabh"))))
+                .sort(sort)
+                .after(KeysetPagination.cursorOf(sort, lastRow))
+                .build()
+                .getExpression(new JpaSpecificationExpressionVisitor<>());
+
+        List<String> calls = new ArrayList<>();
+        specification.toPredicate(recorder(Root.class, calls), recorder(CriteriaQuery.class, calls),
+                recorder(CriteriaBuilder.class, calls));
+
+        Assert.assertEquals(Arrays.asList("get", "equal", "get", "lessThan", "get", "equal", "get", "greaterThan",
+                "and", "or", "and"), names(calls));
+        Assert.assertEquals(Arrays.asList("get[firstName]", "get[age]", "get[age]", "get[lastName]"),
+                calls.stream().filter(call -> call.startsWith("get")).collect(Collectors.toList()));
+        Assert.assertTrue(calls.get(3).endsWith(", 30]"));
+        Assert.assertTrue(calls.get(7).endsWith(", Jaiswal]"));
+    }
+
+    @Test
+    public void tupleProjection() {
+        Map<String, String> projection = Collections.singletonMap("firstName", "empFirstName");
+        ResultShape resultShape = new ResultShape(
+                Collections.singletonList(new SortSpecification.Order("empAge", SortSpecification.Direction.DESC)),
+                10, projection).withField("id", "id");
+        Specification<Object> specification = new JpaSpecificationExpressionVisitor<>(projection, null)
+                .compile(new FilterExpressionParser().parseFilterExpression(
+                        Collections.singletonMap("firstName", Collections.singletonMap("equals", "Saurabh"))));
+
+        List<String> calls = new ArrayList<>();
+        resultShape.toJpaTupleQuery(recorder(CriteriaBuilder.class, calls), Object.class, specification);
+
+        Assert.assertEquals(Arrays.asList("createTupleQuery", "from", "get", "alias", "get", "alias", "multiselect",
+                "get", "equal", "where", "get", "desc", "orderBy"), names(calls));
+        Assert.assertTrue(calls.contains("alias[firstName]"));
+        Assert.assertTrue(calls.contains("alias[id]"));
+    }
+
+    private static List<String> names(List<String> calls) {
+        List<String> names = new ArrayList<>();
+        for (String call : calls) {
+            names.add(call.substring(0, call.indexOf('[')));
+        }
+        return names;
+    }
+
+    /**
+     * Returns a proxy recording the calls made on it and on
+     * the criteria objects it returns. Joins are remembered,
+     * as a JPA provider would, so that they can be reused.
+     */
+    private static <P> P recorder(Class<P> type, List<String> calls) {
+        return recorder(type, calls, null);
+    }
+
+    private static <P> P recorder(Class<P> type, List<String> calls, Object[] join) {
+        Set<Object> joins = new LinkedHashSet<>();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return "equals".equals(method.getName()) ? proxy == args[0] : method.invoke(calls, args);
+            }
+            switch (method.getName()) {
+                case "getJoins":
+                    return joins;
+                case "getJoinType":
+                    return join[1];
+                case "getAttribute":
+                    return recorder(Attribute.class, calls, join);
+                case "getName":
+                    return join[0];
+                default:
+                    break;
+            }
+            calls.add(method.getName() + Arrays.toString(args == null ? new Object[0] : args));
+            if ("join".equals(method.getName())) {
+                Object created = recorder(Join.class, calls, args);
+                joins.add(created);
+                return created;
+            }
+            return method.getReturnType().isInterface() ? recorder(method.getReturnType(), calls) : null;
+        }));
+    }
+}
@@ -15,13 +15,36 @@
  */
 package com.intuit.graphql.filter.visitors;
 
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.Operator;
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.client.ExpressionVisitorRegistry;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FilterExpression;
+import com.intuit.graphql.filter.client.FilterExpressionParser;
+import com.intuit.graphql.filter.client.KeysetPagination;
+import com.intuit.graphql.filter.client.PaginationQueries;
+import com.intuit.graphql.filter.client.SortSpecification;
 import com.intuit.graphql.filter.common.TestConstants;
 import graphql.ExecutionResult;
 import graphql.scalars.ExtendedScalars;
 import graphql.schema.idl.RuntimeWiring;
+import org.bson.Document;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Collation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
 
@@ -44,7 +67,7 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
         getGraphQL().execute(TestConstants.BINARY_FILER);
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
-        final Criteria expectedCriteria = Criteria.where("firstName").regex(".*Saurabh.*");
+        final Criteria expectedCriteria = Criteria.where("firstName").regex("Saurabh");
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
     }
@@ -65,7 +88,7 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
         final Criteria expectedCriteria = new Criteria().orOperator(
-                Criteria.where("firstName").regex(".*Saurabh.*"),
+                Criteria.where("firstName").regex("Saurabh"),
                 Criteria.where("lastName").is("Jaiswal"));
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
@@ -76,9 +99,8 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
         ExecutionResult result = getGraphQL().execute(TestConstants.COMPOUND_FILER_WITH_AND);
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
-        final Criteria expectedCriteria = new Criteria().andOperator(
-                Criteria.where("firstName").regex(".*Saurabh.*"),
-                Criteria.where("lastName").is("Jaiswal"));
+        final Criteria expectedCriteria = Criteria.where("firstName").regex("Saurabh")
+                .and("lastName").is("Jaiswal");
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
     }
@@ -89,10 +111,8 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
         final Criteria expectedCriteria = new Criteria().orOperator(
-                Criteria.where("firstName").regex(".*Saurabh.*"),
-                new Criteria().andOperator(
-                        Criteria.where("lastName").is("Jaiswal"),
-                        Criteria.where("age").gte(25)));
+                Criteria.where("firstName").regex("Saurabh"),
+                Criteria.where("lastName").is("Jaiswal").and("age").gte(25));
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
     }
@@ -102,11 +122,10 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
         ExecutionResult result = getGraphQL().execute(TestConstants.COMPOUND_FILER_WITH_AND_OR);
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
-        final Criteria expectedCriteria = new Criteria().andOperator(
-                Criteria.where("firstName").regex(".*Saurabh.*"),
-                new Criteria().orOperator(
+        final Criteria expectedCriteria = Criteria.where("firstName").regex("Saurabh")
+                .orOperator(
                         Criteria.where("lastName").is("Jaiswal"),
-                        Criteria.where("age").gte(25)));
+                        Criteria.where("age").gte(25));
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
     }
@@ -117,12 +136,9 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
         final Criteria expectedCriteria = new Criteria().orOperator(
-                new Criteria().orOperator(
-                        Criteria.where("firstName").regex(".*Saurabh.*"),
-                        Criteria.where("lastName").is("Jaiswal")),
-                new Criteria().andOperator(
-                        Criteria.where("firstName").is("Vinod"),
-                        Criteria.where("age").gte(30)));
+                Criteria.where("firstName").regex("Saurabh"),
+                Criteria.where("lastName").is("Jaiswal"),
+                Criteria.where("firstName").is("Vinod").and("age").gte(30));
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
     }
@@ -132,17 +148,303 @@ public class MongoCriteriaExpressionTest extends BaseFilterExpressionTest {
         ExecutionResult result = getGraphQL().execute(TestConstants.COMPOUND_FILER_WITH_AND_AND_OR);
 
         final Criteria actualCriteria = getEmployeeDataFetcher().getMongoCriteria();
-        final Criteria expectedCriteria = new Criteria().andOperator(
-                new Criteria().andOperator(
-                        Criteria.where("firstName").regex(".*Saurabh.*"),
-                        Criteria.where("lastName").is("Jaiswal")),
-                new Criteria().orOperator(
+        final Criteria expectedCriteria = Criteria.where("firstName").regex("Saurabh")
+                .and("lastName").is("Jaiswal")
+                .orOperator(
                         Criteria.where("firstName").is("Vinod"),
-                        Criteria.where("age").gte(30)));
+                        Criteria.where("age").gte(30));
 
         assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
     }
 
+    @Test
+    public void keysetExpression() {
+        SortSpecification sort = SortSpecification.of(SortSpecification.desc("age"), SortSpecification.asc("id"));
+        Map<String, Object> lastRow = new LinkedHashMap<>();
+        lastRow.put("age", 30);
+        lastRow.put("id", 42L);
+
+        final Criteria actualCriteria = FilterExpression.newFilterExpressionBuilder()
+                .sort(sort)
+                .after(KeysetPagination.cursorOf(sort, lastRow))
+                .build()
+                .getExpression(ExpressionFormat.MONGO);
+        final Criteria expectedCriteria = new Criteria().orOperator(
+                Criteria.where("age").lt(30),
+                Criteria.where("age").is(30).and("id").gt(42L));
+
+        assertCriteriaJsonEquals(expectedCriteria, actualCriteria);
+    }
+
+    @Test
+    public void sortLimitAndProjectionPushdown() {
+        ExecutionResult result = getGraphQL().execute(TestConstants.SORTED_LIMITED_FILTER);
+        Assert.assertTrue(result.getErrors().isEmpty());
+
+        final Query query = getEmployeeDataFetcher().getMongoQuery();
+        Assert.assertEquals("{\"age\": {\"$gte\": 25}}", query.getQueryObject().toJson());
+        Assert.assertEquals("{\"age\": -1, \"firstName\": 1}", query.getSortObject().toJson());
+        Assert.assertEquals("{\"firstName\": 1, \"age\": 1}", query.getFieldsObject().toJson());
+        Assert.assertEquals(10, query.getLimit());
+    }
+
+    @Test
+    public void paginationQueries() {
+        Map<String, Object> filter = Collections.singletonMap("age", Collections.singletonMap("gte", 25));
+        PaginationQueries<Query> queries = FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter", filter))
+                .limit(10)
+                .build()
+                .getPaginationQueries(ExpressionFormat.MONGO);
+
+        Assert.assertEquals(10, queries.getPageQuery().getLimit());
+        Assert.assertEquals("{\"age\": {\"$gte\": 25}}", queries.getCountQuery().getQueryObject().toJson());
+        Assert.assertEquals(0, queries.getCountQuery().getLimit());
+        Assert.assertEquals(1, queries.getExistsQuery().getLimit());
+        Assert.assertEquals(100, queries.getCappedCountQuery(100).getLimit());
+    }
+
+    @Test
+    public void patternCache() {
+        PatternCache<Pattern> patternCache = new PatternCache<>(16);
+        MongoCriteriaExpressionVisitor<Object> visitor = new MongoCriteriaExpressionVisitor<>(null, null);
+        visitor.setPatternCache(patternCache);
+        Map<String, Object> filter = Collections.singletonMap("firstName", Collections.singletonMap("contains", "Saurabh"));
+        FilterExpression filterExpression = FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter", filter))
+                .build();
+
+        Criteria first = filterExpression.getExpression(visitor);
+        Criteria second = filterExpression.getExpression(visitor);
+
+        assertCriteriaJsonEquals(Criteria.where("firstName").regex("Saurabh"), first);
+        Assert.assertSame(first.getCriteriaObject().get("firstName"), second.getCriteriaObject().get("firstName"));
+        Assert.assertEquals(1, patternCache.getHitCount());
+        Assert.assertEquals(1, patternCache.getMissCount());
+    }
+
+    @Test
+    public void patternCacheEviction() {
+        PatternCache<String> patternCache = new PatternCache<>(2);
+
+        patternCache.get(Operator.STARTS, "Sa", value -> "^" + value);
+        patternCache.get(Operator.STARTS, "Sa", value -> "^" + value);
+        patternCache.get(Operator.CONTAINS, "Sa", value -> value.toString());
+        patternCache.get(Operator.ENDS, "Sa", value -> value + "$");
+
+        Assert.assertEquals(1, patternCache.getHitCount());
+        Assert.assertEquals(3, patternCache.getMissCount());
+        Assert.assertEquals(1, patternCache.getEvictionCount());
+        Assert.assertEquals(2, patternCache.size());
+    }
+
+    @Test
+    public void mergesSameFieldConditions() {
+        final Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 1)),
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal")),
+                Collections.singletonMap("age", Collections.singletonMap("lte", 9)),
+                Collections.singletonMap("age", Collections.singletonMap("gt", 2))));
+
+        final Criteria actualCriteria = new MongoCriteriaExpressionVisitor<>(null, null)
+                .expression(new FilterExpressionParser().parseFilterExpression(filter));
+
+        Assert.assertEquals("{\"age\": {\"$gte\": 1, \"$lte\": 9, \"$gt\": 2}, \"lastName\": \"Jaiswal\"}",
+                actualCriteria.getCriteriaObject().toJson());
+    }
+
+    @Test
+    public void keepsConflictingConditions() {
+        final Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("between", Arrays.asList(1, 9))),
+                Collections.singletonMap("age", Collections.singletonMap("gte", 5))));
+
+        final Criteria actualCriteria = new MongoCriteriaExpressionVisitor<>(null, null)
+                .expression(new FilterExpressionParser().parseFilterExpression(filter));
+
+        Assert.assertEquals("{\"age\": {\"$gte\": 1, \"$lte\": 9}, \"$and\": [{\"age\": {\"$gte\": 5}}]}",
+                actualCriteria.getCriteriaObject().toJson());
+    }
+
+    @Test
+    public void negatedDisjunction() {
+        final Map<String, Object> filter = Collections.singletonMap("not", Collections.singletonMap("or", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 30)),
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal")))));
+
+        final Criteria actualCriteria = new MongoCriteriaExpressionVisitor<>(null, null)
+                .expression(new FilterExpressionParser().parseFilterExpression(filter));
+
+        Assert.assertEquals(new Criteria().norOperator(
+                        Criteria.where("age").gte(30),
+                        Criteria.where("lastName").is("Jaiswal")).getCriteriaObject().toJson(),
+                actualCriteria.getCriteriaObject().toJson());
+    }
+
+    @Test
+    public void compoundCriteriaEquality() {
+        final MongoCriteriaExpressionVisitor<Object> visitor = new MongoCriteriaExpressionVisitor<>(null, null);
+        final Map<String, Object> filter = Collections.singletonMap("or", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 30)),
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal"))));
+        final Map<String, Object> otherFilter = Collections.singletonMap("or", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 40)),
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal"))));
+
+        final Criteria criteria = visitor.expression(new FilterExpressionParser().parseFilterExpression(filter));
+
+        Assert.assertEquals(criteria, visitor.expression(new FilterExpressionParser().parseFilterExpression(filter)));
+        Assert.assertEquals(criteria.hashCode(),
+                visitor.expression(new FilterExpressionParser().parseFilterExpression(filter)).hashCode());
+        Assert.assertNotEquals(criteria, visitor.expression(new FilterExpressionParser().parseFilterExpression(otherFilter)));
+    }
+
+    @Test
+    public void escapedRegex() {
+        final MongoCriteriaExpressionVisitor<Object> visitor = new MongoCriteriaExpressionVisitor<>(null, null);
+
+        Assert.assertEquals(Criteria.where("email").regex("^a\\.b\\*").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("email", "starts", "a.b*")).getCriteriaObject().toJson());
+        Assert.assertEquals(Criteria.where("email").regex("\\(x\\)$").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("email", "ends", "(x)")).getCriteriaObject().toJson());
+    }
+
+    @Test
+    public void caseInsensitiveCollation() {
+        final MongoCriteriaExpressionVisitor<Object> visitor = new MongoCriteriaExpressionVisitor<>(null, null);
+        visitor.setCaseInsensitiveCollation(Collation.of("en").strength(Collation.ComparisonLevel.secondary()));
+
+        Assert.assertEquals(Criteria.where("firstName").gte("Sau").lt("Sav").regex("^Sau", "i").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("firstName", "starts", "Sau")).getCriteriaObject().toJson());
+        Assert.assertEquals(Criteria.where("firstName").regex("^Liz", "i").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("firstName", "starts", "Liz")).getCriteriaObject().toJson());
+        Assert.assertEquals(Criteria.where("firstName").regex("aur", "i").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("firstName", "contains", "aur")).getCriteriaObject().toJson());
+        Assert.assertEquals(Criteria.where("firstName").is("saurabh").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("firstName", "equals", "saurabh")).getCriteriaObject().toJson());
+
+        visitor.setCaseInsensitiveCollation(Collation.of("en").strength(Collation.ComparisonLevel.primary()));
+        Assert.assertEquals(Criteria.where("firstName").gte("Sau").lt("Sav").getCriteriaObject().toJson(),
+                visitor.expression(stringFilter("firstName", "starts", "Sau")).getCriteriaObject().toJson());
+    }
+
+    @Test
+    public void collationOfQueries() {
+        Collation collation = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+        MongoCriteriaExpressionVisitor<Object> visitor = new MongoCriteriaExpressionVisitor<>(FieldMapping.identity());
+        visitor.setCaseInsensitiveCollation(collation);
+        Map<String, Object> filter = Collections.singletonMap("firstName", Collections.singletonMap("equals", "saurabh"));
+        FilterExpression filterExpression = FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter", filter))
+                .registry(ExpressionVisitorRegistry.withDefaults().register(ExpressionFormat.MONGO, visitor))
+                .build();
+
+        Query query = filterExpression.getQuery(ExpressionFormat.MONGO);
+        PaginationQueries<Query> queries = filterExpression.getPaginationQueries(ExpressionFormat.MONGO);
+        Aggregation aggregation = filterExpression.getMongoAggregation(Collections.emptyList());
+
+        Assert.assertEquals(collation, query.getCollation().get());
+        Assert.assertEquals(collation, queries.getPageQuery().getCollation().get());
+        Assert.assertEquals(collation, queries.getCountQuery().getCollation().get());
+        Assert.assertEquals(collation, queries.getCappedCountQuery(100).getCollation().get());
+        Assert.assertEquals(collation, aggregation.getOptions().getCollation().get());
+        Assert.assertFalse(FilterExpression.newFilterExpressionBuilder()
+                .args(Collections.singletonMap("filter", filter))
+                .build()
+                .<Query>getQuery(ExpressionFormat.MONGO)
+                .getCollation().isPresent());
+    }
+
+    @Test
+    public void plansCompoundIndexPrefix() {
+        MongoIndexes indexes = MongoIndexes.of(
+                new Document("age", 1),
+                new Document("lastName", 1).append("age", -1),
+                new Document("email", "text"));
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25)),
+                Collections.singletonMap("firstName", Collections.singletonMap("contains", "Sau")),
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal"))));
+
+        MongoQueryPlan plan = new MongoCriteriaExpressionVisitor<>(FieldMapping.identity())
+                .plan(new FilterExpressionParser().parseFilterExpression(filter), indexes);
+
+        Assert.assertEquals("{\"lastName\": \"Jaiswal\", \"age\": {\"$gte\": 25}, \"firstName\": {\"$regularExpression\": {\"pattern\": \"Sau\", \"options\": \"\"}}}",
+                plan.getCriteria().getCriteriaObject().toJson());
+        Assert.assertEquals(new Document("lastName", 1).append("age", -1), plan.getHint());
+        Assert.assertEquals(plan.getHint().toJson(), plan.applyHint(new Query()).getHint());
+        Assert.assertEquals(Collections.singletonList("firstName"), plan.getScanFieldNames());
+        Assert.assertFalse(plan.isCollectionScan());
+    }
+
+    @Test
+    public void flagsCollectionScan() {
+        MongoIndexes indexes = MongoIndexes.of(new Document("lastName", 1).append("firstName", 1));
+        Map<String, Object> filter = Collections.singletonMap("or", Arrays.asList(
+                Collections.singletonMap("lastName", Collections.singletonMap("starts", "Jai")),
+                Collections.singletonMap("firstName", Collections.singletonMap("contains", "Sau"))));
+
+        MongoQueryPlan plan = new MongoCriteriaExpressionVisitor<>(FieldMapping.identity())
+                .plan(new FilterExpressionParser().parseFilterExpression(filter), indexes);
+
+        Assert.assertTrue(plan.isCollectionScan());
+        Assert.assertNull(plan.getHint());
+        Assert.assertEquals(Collections.singletonList("firstName"), plan.getScanFieldNames());
+    }
+
+    @Test
+    public void aggregationPipeline() {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25)),
+                Collections.singletonMap("addresses", Collections.singletonMap("city", Collections.singletonMap("equals", "Austin"))),
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal"))));
+
+        List<AggregationOperation> stages = new MongoCriteriaExpressionVisitor<>(FieldMapping.identity()).getPipeline(
+                new FilterExpressionParser().parseFilterExpression(filter),
+                Arrays.asList(Aggregation.lookup("address", "id", "employeeId", "addresses"), Aggregation.unwind("addresses")),
+                Arrays.asList("firstName", "addresses.city"));
+
+        List<String> pipeline = new ArrayList<>();
+        for (Document stage : Aggregation.newAggregation(stages).toPipeline(Aggregation.DEFAULT_CONTEXT)) {
+            pipeline.add(stage.toJson());
+        }
+        Assert.assertEquals(Arrays.asList(
+                "{\"$match\": {\"age\": {\"$gte\": 25}, \"lastName\": \"Jaiswal\"}}",
+                "{\"$project\": {\"id\": 1, \"age\": 1, \"lastName\": 1, \"firstName\": 1}}",
+                "{\"$lookup\": {\"from\": \"address\", \"localField\": \"id\", \"foreignField\": \"employeeId\", \"as\": \"addresses\"}}",
+                "{\"$unwind\": \"$addresses\"}",
+                "{\"$match\": {\"addresses.city\": \"Austin\"}}"), pipeline);
+    }
+
+    @Test
+    public void aggregationPipelineWithLookupVariables() {
+        Document lookup = new Document("from", "address")
+                .append("let", new Document("employeeId", "$id")
+                        .append("region", new Document("$toLower", "$office.region")))
+                .append("pipeline", Collections.singletonList(new Document("$match", new Document("$expr",
+                        new Document("$eq", Arrays.asList("$employeeId", "$$employeeId"))))))
+                .append("as", "addresses");
+        AggregationOperation lookupStage = context -> new Document("$lookup", lookup);
+
+        List<AggregationOperation> stages = new MongoCriteriaExpressionVisitor<>(FieldMapping.identity()).getPipeline(
+                new FilterExpressionParser().parseFilterExpression(
+                        Collections.singletonMap("age", Collections.singletonMap("gte", 25))),
+                Collections.singletonList(lookupStage),
+                Collections.singletonList("firstName"));
+
+        Assert.assertEquals("{\"$project\": {\"id\": 1, \"office.region\": 1, \"age\": 1, \"firstName\": 1}}",
+                Aggregation.newAggregation(stages).toPipeline(Aggregation.DEFAULT_CONTEXT).get(1).toJson());
+    }
+
+    private Expression stringFilter(final String fieldName, final String operator, final String value) {
+        return new FilterExpressionParser().parseFilterExpression(
+                Collections.singletonMap(fieldName, Collections.singletonMap(operator, value)));
+    }
+
     private void assertCriteriaJsonEquals(final Criteria expected, final Criteria actual) {
         Assert.assertEquals(expected.getCriteriaObject().toJson(), actual.getCriteriaObject().toJson());
     }
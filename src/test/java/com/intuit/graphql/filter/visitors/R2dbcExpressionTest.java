@@ -0,0 +1,132 @@
+package com.intuit.graphql.filter.visitors;
+
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Statement;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.intuit.graphql.filter.common.TestFilters.filter;
+import static com.intuit.graphql.filter.common.TestFilters.filterExpression;
+
+public class R2dbcExpressionTest {
+
+    private Connection connection;
+
+    @Before
+    public void init() {
+        connection = Mono.from(H2ConnectionFactory.inMemory("r2dbcExpressionTest").create()).block();
+        execute("CREATE TABLE employee (id BIGINT PRIMARY KEY, firstName VARCHAR(64), "
+                + "lastName VARCHAR(64), age INT, birthDate TIMESTAMP)");
+        execute("INSERT INTO employee VALUES "
+                + "(1, 'Saurabh', 'Jaiswal', 30, TIMESTAMP '1990-05-01 00:00:00'), "
+                + "(2, 'Vinod', 'Kumar', 25, TIMESTAMP '1995-01-15 00:00:00'), "
+                + "(3, 'Shaun', 'O''Neil', 41, TIMESTAMP '1981-11-30 00:00:00'), "
+                + "(4, 'Sam', 'Lee', 19, TIMESTAMP '2001-07-04 00:00:00')");
+    }
+
+    @After
+    public void close() {
+        execute("DROP TABLE employee");
+        Mono.from(connection.close()).block();
+    }
+
+    @Test
+    public void bindsIndexedMarkers() {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                filter("lastName", "in", Arrays.asList("O'Neil", "Lee", "Kumar")),
+                filter("age", "gte", 20)));
+        R2dbcExpression expression = r2dbcExpression(filter);
+
+        Assert.assertEquals("WHERE ((lastName IN ($1, $2, $3)) AND (age >= $4))", expression.getSql());
+        Assert.assertEquals(Arrays.asList(2L, 3L), query(expression));
+    }
+
+    @Test
+    public void bindsTimestampAndLike() {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                filter("firstName", "starts", "S"),
+                filter("birthDate", "lt", Instant.parse("2000-01-01T00:00:00Z"))));
+        R2dbcExpression expression = r2dbcExpression(filter);
+
+        Assert.assertEquals("WHERE ((firstName LIKE $1) AND (birthDate < $2))", expression.getSql());
+        Assert.assertEquals(Arrays.asList(1L, 3L), query(expression));
+    }
+
+    @Test
+    public void bindsLocalDateTimeInDefaultZone() {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        try {
+            R2dbcExpression expression = r2dbcExpression(filter("birthDate", "gt", LocalDateTime.of(1995, 1, 15, 0, 0)));
+
+            Assert.assertEquals(Collections.singletonList(4L), query(expression));
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    @Test
+    public void bindsSqlDate() {
+        R2dbcExpression expression = r2dbcExpression(filter("birthDate", "lt", java.sql.Date.valueOf("1995-01-15")));
+
+        Assert.assertEquals(Arrays.asList(1L, 3L), query(expression));
+    }
+
+    @Test
+    public void escapesJsonHasKeyWithQuestionMarkMarkers() {
+        R2dbcExpressionVisitor visitor = new R2dbcExpressionVisitor(
+                null, null, ParameterizedSQLExpressionValueVisitor.BindMarkers.QUESTION_MARK);
+
+        Assert.assertEquals("WHERE (metadata ?? ?)",
+                filterExpression(filter("metadata", "jsonHasKey", "team")).getExpression(visitor).getSql());
+        Assert.assertEquals("WHERE (metadata ? $1)",
+                r2dbcExpression(filter("metadata", "jsonHasKey", "team")).getSql());
+    }
+
+    @Test
+    public void rendersQuestionMarkMarkers() {
+        R2dbcExpressionVisitor visitor = new R2dbcExpressionVisitor(
+                null, null, ParameterizedSQLExpressionValueVisitor.BindMarkers.QUESTION_MARK);
+        R2dbcExpression expression = filterExpression(filter("age", "between", Arrays.asList(20, 30)))
+                .getExpression(visitor);
+
+        Assert.assertEquals("WHERE (age BETWEEN ? AND ?)", expression.getSql());
+        Assert.assertEquals(Arrays.asList(20, 30), expression.getParameters());
+    }
+
+    private List<Long> query(R2dbcExpression expression) {
+        final Statement statement = connection.createStatement(
+                "SELECT id FROM employee " + expression.getSql() + " ORDER BY id");
+        return Flux.from(expression.bind(statement).execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                .collectList()
+                .block();
+    }
+
+    private void execute(String sql) {
+        Flux.from(connection.createStatement(sql).execute())
+                .flatMap(result -> result.getRowsUpdated())
+                .blockLast();
+    }
+
+    private R2dbcExpression r2dbcExpression(Map<String, Object> filter) {
+        return filterExpression(filter).getExpression(ExpressionFormat.R2DBC);
+    }
+}
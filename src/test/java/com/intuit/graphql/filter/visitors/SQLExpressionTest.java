@@ -15,13 +15,44 @@
  */
 package com.intuit.graphql.filter.visitors;
 
+import com.intuit.graphql.filter.ast.Expression;
+import com.intuit.graphql.filter.ast.ExpressionValue;
+import com.intuit.graphql.filter.client.ExpressionFormat;
+import com.intuit.graphql.filter.client.FieldMapping;
+import com.intuit.graphql.filter.client.FieldValuePair;
+import com.intuit.graphql.filter.client.FieldValueTransformer;
+import com.intuit.graphql.filter.client.FilterExpression;
+import com.intuit.graphql.filter.client.FilterExpressionParser;
+import com.intuit.graphql.filter.client.InvalidFilterException;
+import com.intuit.graphql.filter.client.KeysetPagination;
+import com.intuit.graphql.filter.client.PaginationQueries;
+import com.intuit.graphql.filter.client.SortSpecification;
 import com.intuit.graphql.filter.common.TestConstants;
 import graphql.ExecutionResult;
 import graphql.scalars.ExtendedScalars;
+import graphql.schema.GraphQLInputObjectType;
 import graphql.schema.idl.RuntimeWiring;
 import org.junit.Assert;
 import org.junit.Test;
-
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.intuit.graphql.filter.common.TestFilters.filterArgs;
+import static com.intuit.graphql.filter.common.TestFilters.filterExpression;
 import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
 
 /**
@@ -246,4 +277,349 @@ public class SQLExpressionTest extends BaseFilterExpressionTest {
 
         Assert.assertEquals(expectedExpression,getEmployeeDataFetcher().getSqlExpression());
     }
+
+    @Test
+    public void prefixRangeRewriteWithStarts() {
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(Collections.singletonMap("firstName", "empFirstName"));
+        visitor.setPrefixRangeRewriter(PrefixRangeRewriter.forAllFields());
+
+        String expectedExpression = "WHERE (empFirstName >= 'O''Ne' AND empFirstName < 'O''Nf')";
+
+        Assert.assertEquals(expectedExpression, filterExpression("firstName", "starts", "O'Ne").getExpression(visitor));
+    }
+
+    @Test
+    public void prefixRangeRewriteOptOut() {
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(Collections.singletonMap("firstName", "empFirstName"));
+        visitor.setPrefixRangeRewriter(PrefixRangeRewriter.forAllFields().excluding("empFirstName"));
+
+        Assert.assertEquals("WHERE (empFirstName LIKE 'Sa%')",
+                filterExpression("firstName", "starts", "Sa").getExpression(visitor));
+
+        visitor.setPrefixRangeRewriter(PrefixRangeRewriter.forFields("lastName"));
+        Assert.assertEquals("WHERE (empFirstName LIKE 'Sa%')",
+                filterExpression("firstName", "starts", "Sa").getExpression(visitor));
+
+        visitor.setPrefixRangeRewriter(PrefixRangeRewriter.forAllFields());
+        Assert.assertEquals("WHERE (empFirstName LIKE 'S_%')",
+                filterExpression("firstName", "starts", "S_").getExpression(visitor));
+    }
+
+    @Test
+    public void prefixRangeSuccessor() {
+        Assert.assertEquals("abd", PrefixRangeRewriter.successor("abc"));
+        Assert.assertEquals("M\u00e1y", PrefixRangeRewriter.successor("M\u00e1x"));
+        Assert.assertEquals("a\ue000", PrefixRangeRewriter.successor("a\ud7ff"));
+        Assert.assertEquals("a\ud83d\ude01", PrefixRangeRewriter.successor("a\ud83d\ude00"));
+        Assert.assertEquals("b", PrefixRangeRewriter.successor("a\udbff\udfff"));
+        Assert.assertNull(PrefixRangeRewriter.successor("\udbff\udfff"));
+    }
+
+    @Test
+    public void jsonContainsExpression() {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("team", "o'neil");
+        document.put("level", 3);
+
+        String expectedExpression = "WHERE (metadata @> '{\"team\":\"o''neil\",\"level\":3}'::jsonb)";
+
+        Assert.assertEquals(expectedExpression,
+                filterExpression("metadata", "jsonContains", document).getExpression(new SQLExpressionVisitor(null)));
+    }
+
+    @Test
+    public void jsonHasKeyExpression() {
+        String expectedExpression = "WHERE (metadata ? 'team')";
+
+        Assert.assertEquals(expectedExpression,
+                filterExpression("metadata", "jsonHasKey", "team").getExpression(new SQLExpressionVisitor(null)));
+    }
+
+    @Test
+    public void sortLimitAndProjectionPushdown() {
+        ExecutionResult result = getGraphQL().execute(TestConstants.SORTED_LIMITED_FILTER);
+        Assert.assertTrue(result.getErrors().isEmpty());
+
+        Assert.assertEquals("WHERE (age >= 25) ORDER BY age DESC, empFirstName ASC LIMIT 10",
+                getEmployeeDataFetcher().getSqlQuery());
+        Assert.assertEquals("empFirstName, age", getEmployeeDataFetcher().getSqlColumns());
+    }
+
+    @Test
+    public void projectionOfUnselectedSortField() {
+        ExecutionResult result = getGraphQL().execute(TestConstants.SORTED_UNSELECTED_FILTER);
+        Assert.assertTrue(result.getErrors().toString(), result.getErrors().isEmpty());
+
+        Assert.assertEquals("WHERE (age >= 25) ORDER BY empFirstName ASC LIMIT 2", getEmployeeDataFetcher().getSqlQuery());
+        Assert.assertEquals("lastName, empFirstName", getEmployeeDataFetcher().getSqlColumns());
+
+        FilterExpression filterExpression = getEmployeeDataFetcher().getSqlFilterExpression();
+        Map<String, Object> lastRow = new LinkedHashMap<>();
+        for (String fieldName : filterExpression.getResultShape().getProjection().keySet()) {
+            lastRow.put(fieldName, fieldName.equals("firstName") ? "Saurabh" : "Jaiswal");
+        }
+        Assert.assertEquals(
+                KeysetPagination.cursorOf(SortSpecification.of(SortSpecification.asc("firstName")),
+                        Collections.singletonMap("firstName", "Saurabh")),
+                filterExpression.cursorOf(lastRow));
+    }
+
+    @Test
+    public void sortPushdownWithoutFilter() {
+        Map<String, Object> orderBy = new LinkedHashMap<>();
+        orderBy.put("age", "desc");
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("orderBy", orderBy);
+
+        FilterExpression filterExpression = FilterExpression.newFilterExpressionBuilder()
+                .map("age", "empAge")
+                .args(args)
+                .build();
+
+        Assert.assertEquals("ORDER BY empAge DESC", filterExpression.getQuery(ExpressionFormat.SQL));
+        Assert.assertEquals("*", filterExpression.getResultShape().toSqlColumns());
+    }
+
+    @Test
+    public void sortFieldOutsideSchema() {
+        Map<String, Object> args = filterArgs("age", "gte", 25);
+        args.put("orderBy", Collections.singletonMap("age; DROP TABLE employee", "ASC"));
+
+        try {
+            FilterExpression.newFilterExpressionBuilder()
+                    .filterType(employeeFilterType())
+                    .args(args)
+                    .build();
+            Assert.fail();
+        } catch (InvalidFilterException e) {
+            Assert.assertEquals("Invalid sort field: age; DROP TABLE employee", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void queryWithoutQueryForm() {
+        FilterExpression.newFilterExpressionBuilder()
+                .args(filterArgs("age", "gte", 25))
+                .build()
+                .getQuery(ExpressionFormat.INFIX);
+    }
+
+    @Test
+    public void paginationQueries() {
+        Map<String, Object> args = filterArgs("age", "gte", 25);
+        args.put("orderBy", Collections.singletonMap("age", "ASC"));
+        args.put("first", 10);
+
+        PaginationQueries<String> queries = FilterExpression.newFilterExpressionBuilder()
+                .filterType(employeeFilterType())
+                .args(args)
+                .build()
+                .getSqlPaginationQueries("employee");
+
+        Assert.assertEquals("SELECT * FROM employee WHERE (age >= 25) ORDER BY age ASC LIMIT 10", queries.getPageQuery());
+        Assert.assertEquals("SELECT COUNT(*) FROM employee WHERE (age >= 25)", queries.getCountQuery());
+        Assert.assertEquals("SELECT 1 FROM employee WHERE (age >= 25) LIMIT 1", queries.getExistsQuery());
+        Assert.assertEquals("SELECT COUNT(*) FROM (SELECT 1 FROM employee WHERE (age >= 25) LIMIT 100) capped",
+                queries.getCappedCountQuery(100));
+    }
+
+    @Test
+    public void keysetPaginationQueries() {
+        SortSpecification sort = SortSpecification.of(SortSpecification.asc("age"));
+        PaginationQueries<String> queries = FilterExpression.newFilterExpressionBuilder()
+                .args(filterArgs("age", "gte", 25))
+                .sort(sort)
+                .after(KeysetPagination.cursorOf(sort, Collections.singletonMap("age", 30)))
+                .limit(10)
+                .build()
+                .getSqlPaginationQueries("employee");
+
+        Assert.assertEquals("SELECT * FROM employee WHERE ((age >= 25) AND (age > 30)) ORDER BY age ASC LIMIT 10",
+                queries.getPageQuery());
+        Assert.assertEquals("SELECT COUNT(*) FROM employee WHERE (age >= 25)", queries.getCountQuery());
+        Assert.assertEquals("SELECT 1 FROM employee WHERE (age >= 25) LIMIT 1", queries.getExistsQuery());
+        Assert.assertEquals("SELECT COUNT(*) FROM (SELECT 1 FROM employee WHERE (age >= 25) LIMIT 100) capped",
+                queries.getCappedCountQuery(100));
+    }
+
+    @Test
+    public void streamingExpression() throws IOException {
+        List<Integer> ages = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            ages.add(i);
+        }
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("or", Arrays.asList(
+                Collections.singletonMap("age", Collections.singletonMap("in", ages)),
+                Collections.singletonMap("firstName", Collections.singletonMap("contains", "O'Neil"))));
+        Expression expression = new FilterExpressionParser().parseFilterExpression(filter);
+
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(Collections.singletonMap("firstName", "empFirstName"));
+        visitor.setCollectMetadata(false);
+        StringWriter writer = new StringWriter();
+        visitor.expression(expression, writer);
+
+        String expectedExpression = visitor.expression(expression);
+        Assert.assertTrue(expectedExpression.endsWith(", 99999)) OR (empFirstName LIKE '%O''Neil%'))"));
+        Assert.assertEquals(expectedExpression, writer.toString());
+        Assert.assertTrue(visitor.getMetadataCollector().isEmpty());
+    }
+
+    @Test
+    public void streamingExpressionWithMetadata() throws IOException {
+        Expression expression = new FilterExpressionParser().parseFilterExpression(
+                Collections.singletonMap("lastName", Collections.singletonMap("in", Arrays.asList("Jaiswal", "Lal"))));
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(null);
+        Map<String, List<String>> metadata = new HashMap<>();
+        visitor.setMetadataCollector(metadata);
+        CharBuffer buffer = CharBuffer.allocate(64);
+        visitor.expression(expression, buffer);
+        buffer.flip();
+
+        Assert.assertEquals("WHERE (lastName IN ('Jaiswal', 'Lal'))", buffer.toString());
+        Assert.assertEquals(Arrays.asList("'Jaiswal'", " 'Lal'"), metadata.get("metadata@lastName"));
+    }
+
+    @Test
+    public void sharedVisitorAcrossThreads() throws Exception {
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(Collections.singletonMap("firstName", "empFirstName"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final int age = i;
+                results.add(executor.submit(() -> {
+                    Map<String, Object> filter = new LinkedHashMap<>();
+                    filter.put("and", Arrays.asList(
+                            Collections.singletonMap("firstName", Collections.singletonMap("contains", "Sa" + age)),
+                            Collections.singletonMap("age", Collections.singletonMap("gte", age))));
+                    return visitor.expression(new FilterExpressionParser().parseFilterExpression(filter),
+                            new HashMap<>());
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals("WHERE ((empFirstName LIKE '%Sa" + i + "%') AND (age >= " + i + "))",
+                        results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void bareExpressionValue() {
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(null);
+
+        Assert.assertEquals("age = 30", visitor.visitExpressionValue(new ExpressionValue<>(30), "age = "));
+        Assert.assertEquals("'O''Neil'", visitor.visitExpressionValue(new ExpressionValue<>("O'Neil"), ""));
+    }
+
+    @Test
+    public void perCallMetadata() {
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(null);
+        Map<String, List<String>> metadata = new HashMap<>();
+        Expression expression = new FilterExpressionParser().parseFilterExpression(
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal")));
+
+        Assert.assertEquals("WHERE (lastName = 'Jaiswal')", visitor.expression(expression, metadata));
+        Assert.assertEquals(Collections.singletonList("'Jaiswal'"), metadata.get("metadata@lastName"));
+        Assert.assertTrue(visitor.getMetadataCollector().isEmpty());
+
+        visitor.expression(expression);
+        Assert.assertEquals(Collections.singletonList("'Jaiswal'"),
+                visitor.getMetadataCollector().get("metadata@lastName"));
+    }
+
+    @Test
+    public void sharedVisitorWithoutCollector() {
+        SQLExpressionVisitor visitor = SQLExpressionVisitor.of(FieldMapping.identity());
+        Expression expression = new FilterExpressionParser().parseFilterExpression(
+                Collections.singletonMap("lastName", Collections.singletonMap("equals", "Jaiswal")));
+
+        Assert.assertEquals("WHERE (lastName = 'Jaiswal')", visitor.expression(expression));
+        Assert.assertNull(visitor.getMetadataCollector());
+    }
+
+    @Test
+    public void multiFormatTranslation() {
+        AtomicInteger transformations = new AtomicInteger();
+        FieldValueTransformer transformer = new FieldValueTransformer() {
+            @Override
+            public String transformField(String fieldName) {
+                return "age".equals(fieldName) ? "empAge" : null;
+            }
+
+            @Override
+            public FieldValuePair<? extends Object> transformValue(String fieldName, Object value) {
+                transformations.incrementAndGet();
+                return new FieldValuePair<>(fieldName, ((Number) value).intValue() * 12);
+            }
+        };
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("and", Arrays.asList(
+                Collections.singletonMap("firstName", Collections.singletonMap("contains", "Sa")),
+                Collections.singletonMap("age", Collections.singletonMap("gte", 25))));
+        FilterExpression filterExpression = FilterExpression.newFilterExpressionBuilder()
+                .map("firstName", "empFirstName")
+                .transform(transformer)
+                .args(Collections.singletonMap(FilterExpression.FilterExpressionBuilder.FILTER_ARG, filter))
+                .build();
+
+        Map<ExpressionFormat, Object> expressions = filterExpression.getExpressions(
+                ExpressionFormat.SQL, ExpressionFormat.INFIX, ExpressionFormat.MONGO);
+
+        Assert.assertEquals(1, transformations.get());
+        Assert.assertEquals("WHERE ((empFirstName LIKE '%Sa%') AND (empAge >= 300))", expressions.get(ExpressionFormat.SQL));
+        Assert.assertEquals(filterExpression.getExpression(ExpressionFormat.SQL), expressions.get(ExpressionFormat.SQL));
+        Assert.assertEquals(filterExpression.getExpression(ExpressionFormat.INFIX), expressions.get(ExpressionFormat.INFIX));
+        Assert.assertEquals(
+                filterExpression.<Criteria>getExpression(ExpressionFormat.MONGO).getCriteriaObject().toJson(),
+                ((Criteria) expressions.get(ExpressionFormat.MONGO)).getCriteriaObject().toJson());
+    }
+
+    @Test
+    public void keysetExpression() {
+        SortSpecification sort = SortSpecification.of(SortSpecification.asc("age"), SortSpecification.asc("lastName"));
+        Map<String, Object> lastRow = new LinkedHashMap<>();
+        lastRow.put("age", 30);
+        lastRow.put("lastName", "O'Neil");
+        String cursor = KeysetPagination.cursorOf(sort, lastRow);
+
+        FilterExpression filterExpression = FilterExpression.newFilterExpressionBuilder()
+                .map("firstName", "empFirstName")
+                .args(filterArgs("firstName", "contains", "Sa"))
+                .sort(sort)
+                .after(cursor)
+                .build();
+
+        Assert.assertEquals("WHERE ((empFirstName LIKE '%Sa%') AND ((age > 30) OR ((age = 30) AND (lastName > 'O''Neil'))))",
+                filterExpression.getExpression(ExpressionFormat.SQL));
+
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(Collections.singletonMap("firstName", "empFirstName"));
+        visitor.setKeysetRowValueComparison(true);
+        Assert.assertEquals("WHERE ((empFirstName LIKE '%Sa%') AND ((age, lastName) > (30, 'O''Neil')))",
+                filterExpression.getExpression(visitor));
+    }
+
+    @Test
+    public void keysetExpressionMixedDirections() {
+        SortSpecification sort = SortSpecification.of(SortSpecification.desc("age"), SortSpecification.asc("lastName"));
+        Map<String, Object> lastRow = new LinkedHashMap<>();
+        lastRow.put("age", 30);
+        lastRow.put("lastName", "Jaiswal");
+
+        FilterExpression filterExpression = FilterExpression.newFilterExpressionBuilder()
+                .sort(sort)
+                .after(KeysetPagination.cursorOf(sort, lastRow))
+                .build();
+
+        SQLExpressionVisitor visitor = new SQLExpressionVisitor(null);
+        visitor.setKeysetRowValueComparison(true);
+        Assert.assertEquals("WHERE ((age < 30) OR ((age = 30) AND (lastName > 'Jaiswal')))",
+                filterExpression.getExpression(visitor));
+    }
+
+    private GraphQLInputObjectType employeeFilterType() {
+        return (GraphQLInputObjectType) getGraphQL().getGraphQLSchema().getType("EmployeeFilter");
+    }
 }